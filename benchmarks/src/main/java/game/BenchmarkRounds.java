@@ -0,0 +1,49 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jbox2d.common.Vec2;
+
+/**
+ * Rounds used by the benchmarks.
+ */
+final class BenchmarkRounds {
+	/**
+	 * Log filtering every event of the benchmarks
+	 */
+	static final EventLog QUIET = EventLog.create(1024, LogLevel.WARNING,
+			System.out);
+
+	private BenchmarkRounds() {
+	}
+
+	/**
+	 * Create a round whose bullets are all launched and move slowly in a large
+	 * area, so that they stay active during the whole benchmark.
+	 * 
+	 * @param bullets
+	 *            number of bullets
+	 * @return round, started and stopped, ready for {@link Round#update()}
+	 * @throws Exception
+	 *             if the round cannot be created
+	 */
+	static Round createFlying(int bullets) throws Exception {
+		List<Class<? extends Bullet>> classes = new ArrayList<>();
+		for (int i = 0; i < bullets; i++) {
+			classes.add(Cat.class);
+		}
+		Round round = RoundConfig.create(1000, 1000, new Vec2(500, 500),
+				new Vec2(0.01f, 0.01f), classes,
+				Collections.singletonList(new Vec2(900, 900)), 42)
+				.createRound();
+		round.setEventLog(QUIET);
+		round.setClock(SimulationClock.unpaced(round.getTimeStep()));
+		round.start(1);
+		for (Bullet bullet : round.getBullets()) {
+			bullet.start();
+		}
+		return round;
+	}
+}
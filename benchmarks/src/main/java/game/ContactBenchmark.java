@@ -0,0 +1,53 @@
+package game;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.jbox2d.collision.shapes.PolygonShape;
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.BodyDef;
+import org.jbox2d.dynamics.World;
+import org.jbox2d.dynamics.contacts.Contact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of recording and dispatching the contact of a cat with a wall.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ContactBenchmark {
+	private Collide collide;
+	private Contact contact;
+
+	@Setup
+	public void setup() {
+		World world = new World(new Vec2(0, 0));
+		Body wall = world.createBody(new BodyDef());
+		PolygonShape box = new PolygonShape();
+		box.setAsBox(1, 1);
+		wall.createFixture(box, 0);
+		Cat.create(world, new Vec2(0.5f, 0.5f), new Vec2(0, 0), 0f).start();
+		world.step(1 / 60f, 6, 2);
+		contact = world.getContactList();
+		if (contact == null) {
+			throw new IllegalStateException("No contact between cat and wall");
+		}
+		collide = new Collide();
+		collide.setEventLog(BenchmarkRounds.QUIET);
+	}
+
+	@Benchmark
+	public long beginContact() {
+		collide.beginContact(contact);
+		collide.dispatch(null, Collections.emptyList());
+		return collide.getContactCount();
+	}
+}
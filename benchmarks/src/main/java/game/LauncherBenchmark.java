@@ -0,0 +1,49 @@
+package game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of loading a cat into a launcher: through the registry from its
+ * class, through its factory, and through reflection as before the
+ * registry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LauncherBenchmark {
+	private World world;
+	private Launcher launcher;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		world = new World(new Vec2(0, 0));
+		launcher = Launcher.create(world, new Vec2(5, 5), 1, new Vec2(1, 0));
+	}
+
+	@Benchmark
+	public boolean addBulletClass() throws Exception {
+		return launcher.addBullet(Cat.class);
+	}
+
+	@Benchmark
+	public boolean addBulletFactory() {
+		return launcher.addBullet(Cat::create);
+	}
+
+	@Benchmark
+	public Object reflection() throws Exception {
+		return Bullet.getConstructor(Cat.class).invoke(null, world,
+				launcher.getPosition(), new Vec2(1, 0), 0.5f);
+	}
+}
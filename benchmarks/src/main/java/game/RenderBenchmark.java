@@ -0,0 +1,90 @@
+package game;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import fr.umlv.zen3.ApplicationContext;
+import fr.umlv.zen3.KeyboardEvent;
+
+/**
+ * Cost of drawing a frame of a round the way the game does, through the
+ * layers of an {@link ApplicationContext}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+	/**
+	 * Context rendering into an image instead of a window
+	 */
+	private static final class ImageContext implements ApplicationContext {
+		private final BufferedImage image = new BufferedImage(Graphics.WIDTH,
+				Graphics.HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+		@Override
+		public KeyboardEvent pollKeyboard() {
+			return null;
+		}
+
+		@Override
+		public KeyboardEvent waitKeyboard() {
+			return null;
+		}
+
+		@Override
+		public KeyboardEvent pollKeys() {
+			return null;
+		}
+
+		@Override
+		public KeyboardEvent waitKeys() {
+			return null;
+		}
+
+		@Override
+		public void render(Consumer<Graphics2D> consumer) {
+			Graphics2D graphics = image.createGraphics();
+			try {
+				graphics.setBackground(Graphics.BACKGROUND_COLOR);
+				consumer.accept(graphics);
+			} finally {
+				graphics.dispose();
+			}
+		}
+	}
+
+	@Param({ "1", "100" })
+	private int bullets;
+
+	private ImageContext context;
+	private Consumer<Graphics2D> frame;
+
+	@Setup
+	public void setup() throws Exception {
+		Round round = BenchmarkRounds.createFlying(bullets);
+		round.update();
+		context = new ImageContext();
+		frame = graphics -> Graphics.update(context, graphics, round);
+		// The first frame draws the static layer, reused afterwards
+		context.render(frame);
+	}
+
+	@Benchmark
+	public BufferedImage update() {
+		context.render(frame);
+		return context.image;
+	}
+}
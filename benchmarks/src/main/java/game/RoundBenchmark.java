@@ -0,0 +1,41 @@
+package game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of a step of a round and of the check of its outcome.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoundBenchmark {
+	@Param({ "1", "10", "100", "1000" })
+	private int bullets;
+
+	private Round round;
+
+	@Setup
+	public void setup() throws Exception {
+		round = BenchmarkRounds.createFlying(bullets);
+	}
+
+	@Benchmark
+	public long update() {
+		round.update();
+		return round.getStepCount();
+	}
+
+	@Benchmark
+	public boolean isDefeat() {
+		return round.isDefeat();
+	}
+}
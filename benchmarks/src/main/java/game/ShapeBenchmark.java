@@ -0,0 +1,50 @@
+package game;
+
+import java.awt.Shape;
+import java.util.concurrent.TimeUnit;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of building the shapes of the elements.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ShapeBenchmark {
+	private Cat cat;
+	private Launcher launcher;
+	private Goal goal;
+
+	@Setup
+	public void setup() {
+		World world = new World(new Vec2(0, 0));
+		cat = Cat.create(world, new Vec2(2, 2), new Vec2(1, 0), 0.5f);
+		launcher = Launcher.create(world, new Vec2(3, 2), 1, new Vec2(-0.5f,
+				-0.5f));
+		goal = Goal.create(world, new Vec2(3, 3));
+	}
+
+	@Benchmark
+	public Shape cat() {
+		return cat.getGraphicShape();
+	}
+
+	@Benchmark
+	public Shape launcher() {
+		return launcher.getGraphicShape();
+	}
+
+	@Benchmark
+	public Shape goal() {
+		return goal.getGraphicShape();
+	}
+}
@@ -0,0 +1,160 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Run many independent rounds in parallel. Each round owns its world, so the
+ * rounds share nothing and are spread over the threads of a
+ * {@link ForkJoinPool}.
+ */
+public class BatchSimulation {
+	/**
+	 * Pool running the rounds
+	 */
+	private final ForkJoinPool pool;
+	/**
+	 * Number of steps after which a round is stopped
+	 */
+	private final long maxSteps;
+
+	private BatchSimulation(ForkJoinPool pool, long maxSteps) {
+		if (maxSteps <= 0) {
+			throw new IllegalArgumentException(
+					"Number of steps must be positive.");
+		}
+		this.pool = Objects.requireNonNull(pool);
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Create a batch simulation using one thread per processor.
+	 * 
+	 * @param maxSteps
+	 *            number of steps after which a round is stopped
+	 * @return new BatchSimulation
+	 */
+	public static BatchSimulation create(long maxSteps) {
+		return create(Runtime.getRuntime().availableProcessors(), maxSteps);
+	}
+
+	/**
+	 * Create a batch simulation using parallelism threads.
+	 * 
+	 * @param parallelism
+	 *            number of threads
+	 * @param maxSteps
+	 *            number of steps after which a round is stopped
+	 * @return new BatchSimulation
+	 */
+	public static BatchSimulation create(int parallelism, long maxSteps) {
+		return new BatchSimulation(new ForkJoinPool(parallelism), maxSteps);
+	}
+
+	/**
+	 * Run a round for each configuration and aggregate their results.
+	 * 
+	 * @param configs
+	 *            of the rounds
+	 * @return statistics of the runs
+	 */
+	public BatchStatistics run(List<RoundConfig> configs) {
+		RoundConfig[] array = configs.toArray(new RoundConfig[0]);
+		for (RoundConfig config : array) {
+			Objects.requireNonNull(config);
+		}
+		return pool.invoke(new BatchTask(array, 0, array.length));
+	}
+
+	/**
+	 * Stop the threads of the simulation.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Run one round.
+	 * 
+	 * @param config
+	 *            of the round
+	 * @param statistics
+	 *            where to add the result
+	 */
+	private void runOne(RoundConfig config, BatchStatistics statistics) {
+		Round round;
+		try {
+			round = config.createRound();
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new IllegalArgumentException("Invalid round configuration.",
+					e);
+		}
+		RunReport report = HeadlessRunner.run(round, maxSteps);
+		boolean[] goalsFull = new boolean[round.getGoals().size()];
+		int i = 0;
+		for (Goal goal : round.getGoals()) {
+			goalsFull[i++] = goal.isFull();
+		}
+		statistics.add(report, goalsFull);
+	}
+
+	/**
+	 * Run a range of configurations, splitting it while it is large.
+	 */
+	private class BatchTask extends RecursiveTask<BatchStatistics> {
+		private static final long serialVersionUID = 1L;
+		private final RoundConfig[] configs;
+		private final int from;
+		private final int to;
+
+		BatchTask(RoundConfig[] configs, int from, int to) {
+			this.configs = configs;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected BatchStatistics compute() {
+			if (to - from <= 1) {
+				BatchStatistics statistics = new BatchStatistics();
+				if (to > from) {
+					runOne(configs[from], statistics);
+				}
+				return statistics;
+			}
+			int middle = (from + to) >>> 1;
+			BatchTask left = new BatchTask(configs, from, middle);
+			left.fork();
+			BatchStatistics right = new BatchTask(configs, middle, to)
+					.compute();
+			return left.join().merge(right);
+		}
+	}
+
+	/**
+	 * Evaluate the default round over many seeds and print the statistics.
+	 * 
+	 * @param args
+	 *            [number of seeds] [maximum number of steps]
+	 */
+	public static void main(String[] args) {
+		int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		long maxSteps = args.length > 1 ? Long.parseLong(args[1])
+				: HeadlessRunner.DEFAULT_MAX_STEPS;
+		ArrayList<RoundConfig> configs = new ArrayList<>();
+		for (int seed = 0; seed < seeds; seed++) {
+			configs.add(Levels.getDefaultConfig(seed));
+		}
+		BatchSimulation simulation = create(maxSteps);
+		long start = System.nanoTime();
+		BatchStatistics statistics = simulation.run(configs);
+		long wallNanos = System.nanoTime() - start;
+		simulation.shutdown();
+		System.out.println(statistics);
+		System.out.printf("%.1f rounds/s%n", statistics.getRuns() * 1e9
+				/ wallNanos);
+	}
+}
@@ -0,0 +1,158 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Aggregated results of the rounds run by {@link BatchSimulation}.
+ */
+public final class BatchStatistics {
+	private long runs;
+	private long victories;
+	private long defeats;
+	private long resolvedSteps;
+	private long steps;
+	private long contacts;
+	private long[] goalHits = new long[0];
+
+	BatchStatistics() {
+	}
+
+	/**
+	 * Add the result of a run.
+	 * 
+	 * @param report
+	 *            of the run
+	 * @param goalsFull
+	 *            state of each goal at the end of the run
+	 */
+	void add(RunReport report, boolean[] goalsFull) {
+		runs++;
+		steps += report.getSteps();
+		contacts += report.getContacts();
+		switch (report.getOutcome()) {
+		case VICTORY:
+			victories++;
+			resolvedSteps += report.getSteps();
+			break;
+		case DEFEAT:
+			defeats++;
+			resolvedSteps += report.getSteps();
+			break;
+		default:
+			break;
+		}
+		if (goalHits.length < goalsFull.length) {
+			goalHits = Arrays.copyOf(goalHits, goalsFull.length);
+		}
+		for (int i = 0; i < goalsFull.length; i++) {
+			if (goalsFull[i]) {
+				goalHits[i]++;
+			}
+		}
+	}
+
+	/**
+	 * Add all the results of other statistics.
+	 * 
+	 * @param other
+	 *            statistics to add
+	 * @return this
+	 */
+	BatchStatistics merge(BatchStatistics other) {
+		runs += other.runs;
+		victories += other.victories;
+		defeats += other.defeats;
+		resolvedSteps += other.resolvedSteps;
+		steps += other.steps;
+		contacts += other.contacts;
+		if (goalHits.length < other.goalHits.length) {
+			goalHits = Arrays.copyOf(goalHits, other.goalHits.length);
+		}
+		for (int i = 0; i < other.goalHits.length; i++) {
+			goalHits[i] += other.goalHits[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Get the number of rounds run
+	 * 
+	 * @return number of runs
+	 */
+	public long getRuns() {
+		return runs;
+	}
+
+	/**
+	 * Get the number of rounds ended by a victory
+	 * 
+	 * @return number of victories
+	 */
+	public long getVictories() {
+		return victories;
+	}
+
+	/**
+	 * Get the number of rounds ended by a defeat
+	 * 
+	 * @return number of defeats
+	 */
+	public long getDefeats() {
+		return defeats;
+	}
+
+	/**
+	 * Get the rate of rounds ended by a victory
+	 * 
+	 * @return victory rate between 0 and 1
+	 */
+	public double getVictoryRate() {
+		return runs == 0 ? 0 : (double) victories / runs;
+	}
+
+	/**
+	 * Get the mean number of steps of the rounds which ended
+	 * 
+	 * @return mean steps to resolution
+	 */
+	public double getMeanStepsToResolution() {
+		long resolved = victories + defeats;
+		return resolved == 0 ? 0 : (double) resolvedSteps / resolved;
+	}
+
+	/**
+	 * Get the total number of steps calculated
+	 * 
+	 * @return number of steps
+	 */
+	public long getSteps() {
+		return steps;
+	}
+
+	/**
+	 * Get the total number of contacts
+	 * 
+	 * @return number of contacts
+	 */
+	public long getContacts() {
+		return contacts;
+	}
+
+	/**
+	 * Get, for each goal index, the number of rounds where it was full at
+	 * the end.
+	 * 
+	 * @return goal hit distribution
+	 */
+	public long[] getGoalHits() {
+		return goalHits.clone();
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"%d runs, victory rate %.3f, %.1f steps to resolution, goal hits %s",
+				runs, getVictoryRate(), getMeanStepsToResolution(),
+				Arrays.toString(goalHits));
+	}
+}
@@ -1,12 +1,14 @@
 package game;
 
 import java.awt.Graphics2D;
-import java.awt.Point;
 import java.awt.Shape;
 import java.awt.geom.Ellipse2D;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.jbox2d.collision.shapes.PolygonShape;
 import org.jbox2d.common.Vec2;
@@ -31,10 +33,23 @@ public abstract class Bullet extends GameElement {
 	 * True if bullet is not active
 	 */
 	private boolean stopped = false;
+	/**
+	 * Called when the bullet stops
+	 */
+	private final CopyOnWriteArrayList<Consumer<Bullet>> stopListeners = new CopyOnWriteArrayList<>();
 	/**
 	 * Filter contact
 	 */
 	private static final Filter filter;
+	/**
+	 * Radius of the bullets, in game units
+	 */
+	protected static final float RADIUS = 0.1f;
+	/**
+	 * Outline of a bullet
+	 */
+	private static final Shape TEMPLATE = new Ellipse2D.Float(-RADIUS,
+			-RADIUS, RADIUS * 2, RADIUS * 2);
 
 	static {
 		filter = new Filter();
@@ -63,11 +78,18 @@ public abstract class Bullet extends GameElement {
 	}
 
 	@Override
-	public Shape getGraphicShape() {
-		Point position = getGraphicPosition();
-		int radius = Math.abs(Graphics.gameToGraphicX(getRadius()));
-		return new Ellipse2D.Float(position.x - radius, position.y - radius,
-				radius * 2, radius * 2);
+	public ElementKind getKind() {
+		return ElementKind.BULLET;
+	}
+
+	@Override
+	public int getStateFlags() {
+		return super.getStateFlags() | (stopped ? WorldSnapshot.STOPPED : 0);
+	}
+
+	@Override
+	protected Shape getTemplate() {
+		return TEMPLATE;
 	}
 
 	/**
@@ -82,20 +104,43 @@ public abstract class Bullet extends GameElement {
 		}
 	}
 
+	@Override
+	void draw(TemplatePainter painter, WorldSnapshot snapshot, int index,
+			float alpha) {
+		if ((snapshot.getFlags(index) & (WorldSnapshot.ACTIVE | WorldSnapshot.STOPPED)) != 0) {
+			super.draw(painter, snapshot, index, alpha);
+		}
+	}
+
 	/**
+	 * Get the static create method of a type of bullet. Prefer
+	 * {@link BulletFactories#get(Class)}, which resolves it only once.
 	 * 
 	 * @param classValue
-	 * @return
+	 * @return create method, with the parameters of
+	 *         {@link BulletFactory#create(World, Vec2, Vec2, float)}, the
+	 *         angular velocity being a float or a Float
 	 * @throws NoSuchMethodException
+	 *             if classValue does not have a static create method
 	 * @throws SecurityException
 	 * @throws IllegalAccessException
+	 *             if the create method does not return a bullet
 	 */
 	public static Method getConstructor(Class<? extends Bullet> classValue)
 			throws NoSuchMethodException, SecurityException,
 			IllegalAccessException {
-		Method method = classValue.getDeclaredMethod("create", World.class,
-				Vec2.class, Vec2.class, Float.class);
-		if (Bullet.class.isInstance(method.getReturnType())) {
+		Method method;
+		try {
+			method = classValue.getDeclaredMethod("create", World.class,
+					Vec2.class, Vec2.class, float.class);
+		} catch (NoSuchMethodException e) {
+			method = classValue.getDeclaredMethod("create", World.class,
+					Vec2.class, Vec2.class, Float.class);
+		}
+		if (!Modifier.isStatic(method.getModifiers())) {
+			throw new NoSuchMethodException(classValue.getName() + ".create");
+		}
+		if (!Bullet.class.isAssignableFrom(method.getReturnType())) {
 			throw new IllegalAccessException();
 		}
 		return method;
@@ -104,7 +149,7 @@ public abstract class Bullet extends GameElement {
 	protected static FixtureDef getFixtureDef() {
 		final FixtureDef fixtureDef = new FixtureDef();
 		PolygonShape dynamicBox = new PolygonShape();
-		dynamicBox.setRadius(0.1f);
+		dynamicBox.setRadius(RADIUS);
 		dynamicBox.setAsBox(0.1f, 0.1f);
 		fixtureDef.shape = dynamicBox;
 		fixtureDef.density = 1;
@@ -118,15 +163,12 @@ public abstract class Bullet extends GameElement {
 	}
 
 	/**
-	 * Called when cat contact another body.
+	 * Called when cat contact another body, after the step where the contact
+	 * began. If the body is a goal, it has already received the bullet.
 	 * 
 	 * @param body
 	 */
 	public void beginContact(Body body) {
-		Object object = body.getUserData();
-		if (object instanceof Goal) {
-			((Goal) object).receive(this);
-		}
 	}
 
 	/**
@@ -140,8 +182,22 @@ public abstract class Bullet extends GameElement {
 	 * Deactive the bullet.
 	 */
 	public void stop() {
+		boolean wasStopped = stopped;
 		stopped = true;
 		setActive(false);
+		if (!wasStopped) {
+			stopListeners.forEach(listener -> listener.accept(this));
+		}
+	}
+
+	/**
+	 * Add a listener called when the bullet stops.
+	 * 
+	 * @param listener
+	 *            to call with this bullet
+	 */
+	public void addStopListener(Consumer<Bullet> listener) {
+		stopListeners.add(Objects.requireNonNull(listener));
 	}
 
 	/**
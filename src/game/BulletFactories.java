@@ -0,0 +1,97 @@
+package game;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.World;
+
+/**
+ * Registry of the {@link BulletFactory} of each type of bullet. Cat and
+ * ParkourCat are registered with their create method; other types are
+ * resolved once, from their static create method, the first time they are
+ * asked for.
+ */
+public final class BulletFactories {
+	private static final MethodType FACTORY_TYPE = MethodType.methodType(
+			Bullet.class, World.class, Vec2.class, Vec2.class, float.class);
+	private static final ConcurrentHashMap<Class<? extends Bullet>, BulletFactory> factories = new ConcurrentHashMap<>();
+
+	static {
+		register(Cat.class, Cat::create);
+		register(ParkourCat.class, ParkourCat::create);
+	}
+
+	private BulletFactories() {
+	}
+
+	/**
+	 * Register the factory used to create bullets of a type, replacing the
+	 * previous one.
+	 * 
+	 * @param classValue
+	 *            type of the bullets
+	 * @param factory
+	 *            creating bullets of this type
+	 */
+	public static <T extends Bullet> void register(Class<T> classValue,
+			BulletFactory factory) {
+		factories.put(Objects.requireNonNull(classValue),
+				Objects.requireNonNull(factory));
+	}
+
+	/**
+	 * Get the factory of a type of bullet.
+	 * 
+	 * @param classValue
+	 *            type of the bullets
+	 * @return factory creating bullets of this type
+	 * @throws NoSuchMethodException
+	 *             if the type is not registered and does not have a static
+	 *             create method
+	 * @throws IllegalAccessException
+	 *             if its create method is not public
+	 */
+	public static BulletFactory get(Class<? extends Bullet> classValue)
+			throws NoSuchMethodException, IllegalAccessException {
+		BulletFactory factory = factories.get(Objects
+				.requireNonNull(classValue));
+		if (factory != null) {
+			return factory;
+		}
+		factory = resolve(classValue);
+		BulletFactory previous = factories.putIfAbsent(classValue, factory);
+		return previous == null ? factory : previous;
+	}
+
+	/**
+	 * Build a factory calling the static create method of a type through a
+	 * method handle, boxing the angular velocity if the method takes a
+	 * Float.
+	 * 
+	 * @param classValue
+	 *            type of the bullets
+	 * @return factory of this type
+	 * @throws NoSuchMethodException
+	 * @throws IllegalAccessException
+	 */
+	private static BulletFactory resolve(Class<? extends Bullet> classValue)
+			throws NoSuchMethodException, IllegalAccessException {
+		MethodHandle handle = MethodHandles.publicLookup()
+				.unreflect(Bullet.getConstructor(classValue))
+				.asType(FACTORY_TYPE);
+		return (world, position, velocity, angularVelocity) -> {
+			try {
+				return (Bullet) handle.invokeExact(world, position, velocity,
+						angularVelocity);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+}
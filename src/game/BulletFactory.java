@@ -0,0 +1,27 @@
+package game;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.World;
+
+/**
+ * Create bullets of one type. The static create methods of the bullets, like
+ * {@link Cat#create(World, Vec2, Vec2, float)}, are bullet factories.
+ */
+@FunctionalInterface
+public interface BulletFactory {
+	/**
+	 * Create a bullet.
+	 * 
+	 * @param world
+	 *            of the bullet
+	 * @param position
+	 *            of the bullet
+	 * @param velocity
+	 *            of the bullet
+	 * @param angularVelocity
+	 *            of the bullet
+	 * @return new Bullet
+	 */
+	Bullet create(World world, Vec2 position, Vec2 velocity,
+			float angularVelocity);
+}
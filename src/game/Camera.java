@@ -0,0 +1,326 @@
+package game;
+
+/**
+ * Transformation from game units to the pixels of the panel, shared by all
+ * the elements drawn in a frame. The y axis of the game goes up, the one of
+ * the panel goes down.
+ *
+ * The camera shows the whole area of the round, or a part of it once zoomed
+ * in, which can then be panned without leaving the area.
+ */
+public final class Camera {
+	/**
+	 * Maximum zoom, relative to the whole area
+	 */
+	public static final float MAX_ZOOM = 32;
+	/**
+	 * Pixels per game unit, horizontally
+	 */
+	private float scaleX = 1;
+	/**
+	 * Pixels per game unit, vertically
+	 */
+	private float scaleY = 1;
+	/**
+	 * Pixel of the game point (0;0)
+	 */
+	private float originX = 0;
+	private float originY = 0;
+	/**
+	 * Incremented each time the transformation changes
+	 */
+	private int version = 0;
+	/**
+	 * Area shown, in game units, and size of the panel, in pixels
+	 */
+	private float areaWidth = 0;
+	private float areaHeight = 0;
+	private int screenWidth = 0;
+	private int screenHeight = 0;
+	/**
+	 * Zoom relative to the whole area, 1 to see it all
+	 */
+	private float zoom = 1;
+	/**
+	 * Game point shown at the center of the panel
+	 */
+	private float centerX = 0;
+	private float centerY = 0;
+
+	private Camera() {
+	}
+
+	/**
+	 * Create a camera mapping game units to pixels one to one.
+	 *
+	 * @return new Camera
+	 */
+	public static Camera create() {
+		return new Camera();
+	}
+
+	/**
+	 * Create a camera mapping game units to graphic coordinates (see
+	 * {@link Graphics#gameToGraphicX(float)}), for graphics already
+	 * transformed by {@link Graphics#worldToScreen(Round)}.
+	 *
+	 * @return new Camera
+	 */
+	static Camera graphic() {
+		Camera camera = new Camera();
+		camera.set(Graphics.DEFINITION, Graphics.DEFINITION, 0, 0);
+		return camera;
+	}
+
+	/**
+	 * Show an area of the game on the panel. The zoom and the position of
+	 * the camera are reset when the area or the panel change.
+	 *
+	 * @param width
+	 *            of the area in game units
+	 * @param height
+	 *            of the area in game units
+	 * @param screenWidth
+	 *            of the panel in pixels
+	 * @param screenHeight
+	 *            of the panel in pixels
+	 */
+	public void fit(float width, float height, int screenWidth,
+			int screenHeight) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Area must not be empty.");
+		}
+		if (width == areaWidth && height == areaHeight
+				&& screenWidth == this.screenWidth
+				&& screenHeight == this.screenHeight) {
+			return;
+		}
+		areaWidth = width;
+		areaHeight = height;
+		this.screenWidth = screenWidth;
+		this.screenHeight = screenHeight;
+		reset();
+	}
+
+	/**
+	 * Show the whole area again.
+	 */
+	public void reset() {
+		zoom = 1;
+		centerX = areaWidth / 2;
+		centerY = areaHeight / 2;
+		update();
+	}
+
+	/**
+	 * Zoom in (factor greater than 1) or out, keeping the center of the
+	 * panel in place as long as the view stays in the area.
+	 *
+	 * @param factor
+	 *            multiplying the zoom
+	 */
+	public void zoom(float factor) {
+		if (!(factor > 0)) {
+			throw new IllegalArgumentException("Factor must be positive.");
+		}
+		zoom = Math.max(1, Math.min(MAX_ZOOM, zoom * factor));
+		update();
+	}
+
+	/**
+	 * Move the view, without leaving the area.
+	 *
+	 * @param dx
+	 *            in pixels, positive to the right
+	 * @param dy
+	 *            in pixels, positive downward
+	 */
+	public void pan(float dx, float dy) {
+		centerX += dx / scaleX;
+		centerY -= dy / scaleY;
+		update();
+	}
+
+	/**
+	 * Get the width of the panel the area is fitted into.
+	 *
+	 * @return width in pixels
+	 */
+	public int getScreenWidth() {
+		return screenWidth;
+	}
+
+	/**
+	 * Get the height of the panel the area is fitted into.
+	 *
+	 * @return height in pixels
+	 */
+	public int getScreenHeight() {
+		return screenHeight;
+	}
+
+	/**
+	 * Get the zoom relative to the whole area.
+	 *
+	 * @return zoom, 1 when the whole area is shown
+	 */
+	public float getZoom() {
+		return zoom;
+	}
+
+	/**
+	 * Compute the transformation from the area, the zoom and the center,
+	 * keeping the view inside the area.
+	 */
+	private void update() {
+		if (areaWidth <= 0) {
+			return;
+		}
+		float halfWidth = areaWidth / zoom / 2;
+		float halfHeight = areaHeight / zoom / 2;
+		centerX = Math.max(halfWidth, Math.min(areaWidth - halfWidth, centerX));
+		centerY = Math.max(halfHeight,
+				Math.min(areaHeight - halfHeight, centerY));
+		float scaleX = screenWidth / areaWidth * zoom;
+		float scaleY = screenHeight / areaHeight * zoom;
+		set(scaleX, scaleY, screenWidth / 2f - centerX * scaleX, screenHeight
+				/ 2f + centerY * scaleY);
+	}
+
+	private void set(float scaleX, float scaleY, float originX, float originY) {
+		if (scaleX == this.scaleX && scaleY == this.scaleY
+				&& originX == this.originX && originY == this.originY) {
+			return;
+		}
+		this.scaleX = scaleX;
+		this.scaleY = scaleY;
+		this.originX = originX;
+		this.originY = originY;
+		version++;
+	}
+
+	/**
+	 * Get the version of the transformation: what has been drawn with
+	 * another version must be drawn again.
+	 *
+	 * @return version of the camera
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Get the number of pixels per game unit, horizontally.
+	 *
+	 * @return horizontal scale
+	 */
+	public float getScaleX() {
+		return scaleX;
+	}
+
+	/**
+	 * Get the number of pixels per game unit, vertically.
+	 *
+	 * @return vertical scale
+	 */
+	public float getScaleY() {
+		return scaleY;
+	}
+
+	/**
+	 * Get the left of the view.
+	 *
+	 * @return smallest x coordinate shown, in game units
+	 */
+	public float getMinX() {
+		return -originX / scaleX;
+	}
+
+	/**
+	 * Get the right of the view.
+	 *
+	 * @return largest x coordinate shown, in game units
+	 */
+	public float getMaxX() {
+		return (screenWidth - originX) / scaleX;
+	}
+
+	/**
+	 * Get the bottom of the view.
+	 *
+	 * @return smallest y coordinate shown, in game units
+	 */
+	public float getMinY() {
+		return (originY - screenHeight) / scaleY;
+	}
+
+	/**
+	 * Get the top of the view.
+	 *
+	 * @return largest y coordinate shown, in game units
+	 */
+	public float getMaxY() {
+		return originY / scaleY;
+	}
+
+	/**
+	 * Get the pixel abscissa of a game x coordinate.
+	 *
+	 * @param x
+	 *            in game units
+	 * @return abscissa in pixels
+	 */
+	public float toScreenX(float x) {
+		return originX + x * scaleX;
+	}
+
+	/**
+	 * Get the pixel ordinate of a game y coordinate.
+	 *
+	 * @param y
+	 *            in game units
+	 * @return ordinate in pixels
+	 */
+	public float toScreenY(float y) {
+		return originY - y * scaleY;
+	}
+
+	/**
+	 * Get the game x coordinate of a pixel abscissa.
+	 *
+	 * @param x
+	 *            abscissa in pixels
+	 * @return x in game units
+	 */
+	public float toGameX(float x) {
+		return (x - originX) / scaleX;
+	}
+
+	/**
+	 * Get the game y coordinate of a pixel ordinate.
+	 *
+	 * @param y
+	 *            ordinate in pixels
+	 * @return y in game units
+	 */
+	public float toGameY(float y) {
+		return (originY - y) / scaleY;
+	}
+
+	/**
+	 * Write the pixel coordinates of (x;y) into screen.
+	 *
+	 * @param x
+	 *            in game units
+	 * @param y
+	 *            in game units
+	 * @param screen
+	 *            buffer receiving the abscissa then the ordinate
+	 * @param offset
+	 *            of the abscissa in screen
+	 */
+	public void toScreen(float x, float y, float[] screen, int offset) {
+		screen[offset] = toScreenX(x);
+		screen[offset + 1] = toScreenY(y);
+	}
+}
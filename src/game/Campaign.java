@@ -0,0 +1,265 @@
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequence of levels played one after the other. While a round is played,
+ * a worker thread already creates, with all their bodies, the round of the
+ * next level and another round of the current level, in case it is lost:
+ * going to either of them only hands over a round already built. Rounds
+ * which are not needed any more, such as the other round of a level left,
+ * are cancelled before being built, or dropped.
+ */
+public final class Campaign implements Closeable {
+	/**
+	 * Time the worker waits before creating rounds, so that it does not
+	 * compete with the first frames of the round just handed over
+	 */
+	private static final long PRELOAD_DELAY = 100;
+	/**
+	 * Give the configuration of a level
+	 */
+	@FunctionalInterface
+	private interface Source {
+		RoundConfig get(int level) throws IOException;
+	}
+
+	private final Source source;
+	private final int size;
+	/**
+	 * Worker creating the rounds in advance
+	 */
+	private final ScheduledExecutorService loader;
+	/**
+	 * Seeds given to the rounds, drawn on the thread of the game
+	 */
+	private final Random seeds;
+	/**
+	 * Index of the level being played, one less than the first level before
+	 * the first call to {@link #next()}
+	 */
+	private int level;
+	/**
+	 * Round being played, null before the first call to {@link #next()}
+	 */
+	private Round current;
+	/**
+	 * Round of the next level being created, null if there is no next level
+	 */
+	private CompletableFuture<Round> next;
+	/**
+	 * Other round of the current level being created, null before the first
+	 * call to {@link #next()}
+	 */
+	private CompletableFuture<Round> retry;
+
+	private Campaign(Source source, int size, int first, long seed) {
+		if (first < 0 || first >= size) {
+			throw new IllegalArgumentException("No level " + first);
+		}
+		this.source = source;
+		this.size = size;
+		this.seeds = new Random(seed);
+		this.level = first - 1;
+		loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "campaign-loader");
+			thread.setDaemon(true);
+			return thread;
+		});
+		next = preload(first, 0);
+	}
+
+	/**
+	 * Create a campaign over the levels of a pack.
+	 *
+	 * @param pack
+	 *            of the levels
+	 * @param first
+	 *            index of the first level played
+	 * @param seed
+	 *            of the seeds of the rounds
+	 * @return new Campaign, already creating the round of its first level
+	 */
+	public static Campaign create(LevelPack pack, int first, long seed) {
+		return new Campaign(Objects.requireNonNull(pack)::getConfig,
+				pack.size(), first, seed);
+	}
+
+	/**
+	 * Create a campaign over a list of levels.
+	 *
+	 * @param levels
+	 *            configurations of the levels, in order
+	 * @param seed
+	 *            of the seeds of the rounds
+	 * @return new Campaign, already creating the round of its first level
+	 */
+	public static Campaign create(List<RoundConfig> levels, long seed) {
+		ArrayList<RoundConfig> copy = new ArrayList<>();
+		for (RoundConfig config : levels) {
+			copy.add(Objects.requireNonNull(config));
+		}
+		return new Campaign(copy::get, copy.size(), 0, seed);
+	}
+
+	/**
+	 * Create, on the worker, a round of a level with a new seed. Nothing is
+	 * created if the round is cancelled before the worker gets to it.
+	 *
+	 * @param index
+	 *            of the level
+	 * @param delay
+	 *            in milliseconds before the creation starts
+	 * @return round being created
+	 */
+	private CompletableFuture<Round> preload(int index, long delay) {
+		long seed = seeds.nextLong();
+		CompletableFuture<Round> future = new CompletableFuture<>();
+		loader.schedule(() -> {
+			if (future.isDone()) {
+				return;
+			}
+			try {
+				future.complete(source.get(index).withSeed(seed).createRound());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+		return future;
+	}
+
+	/**
+	 * Drop a round created by the worker, cancelling its creation if it has
+	 * not started yet.
+	 *
+	 * @param future
+	 *            of the round, null if none
+	 */
+	private static void discard(CompletableFuture<Round> future) {
+		if (future != null) {
+			future.cancel(false);
+		}
+	}
+
+	/**
+	 * Wait for a round created by the worker.
+	 *
+	 * @param future
+	 *            of the round
+	 * @param index
+	 *            of its level
+	 * @return round created
+	 * @throws IOException
+	 *             if the level cannot be read or created
+	 */
+	private static Round take(CompletableFuture<Round> future, int index)
+			throws IOException {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException("Level " + index + " cannot be created.",
+					cause);
+		}
+	}
+
+	/**
+	 * Get the number of levels.
+	 *
+	 * @return number of levels
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the index of the level being played.
+	 *
+	 * @return index of the level, one less than the first level before the
+	 *         first call to {@link #next()}
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Get the round being played.
+	 *
+	 * @return round, null before the first call to {@link #next()}
+	 */
+	public Round getCurrent() {
+		return current;
+	}
+
+	/**
+	 * Check if there is a level after the one being played.
+	 *
+	 * @return True if {@link #next()} can be called
+	 */
+	public boolean hasNext() {
+		return next != null;
+	}
+
+	/**
+	 * Go to the next level.
+	 *
+	 * @return round of the next level, not started
+	 * @throws IOException
+	 *             if the level cannot be read or created
+	 */
+	public Round next() throws IOException {
+		if (next == null) {
+			throw new IllegalStateException("No more level.");
+		}
+		current = take(next, level + 1);
+		level++;
+		next = level + 1 < size ? preload(level + 1, PRELOAD_DELAY) : null;
+		discard(retry);
+		retry = preload(level, PRELOAD_DELAY);
+		return current;
+	}
+
+	/**
+	 * Play the current level again.
+	 *
+	 * @return new round of the current level, not started
+	 * @throws IOException
+	 *             if the level cannot be read or created
+	 */
+	public Round retry() throws IOException {
+		if (retry == null) {
+			throw new IllegalStateException("No level played yet.");
+		}
+		current = take(retry, level);
+		retry = preload(level, PRELOAD_DELAY);
+		return current;
+	}
+
+	/**
+	 * Stop the worker. Rounds being created are dropped.
+	 */
+	@Override
+	public void close() {
+		loader.shutdownNow();
+		discard(next);
+		discard(retry);
+		next = null;
+		retry = null;
+	}
+}
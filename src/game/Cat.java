@@ -1,9 +1,8 @@
 package game;
 
-import java.awt.Point;
-import java.awt.Polygon;
 import java.awt.Shape;
-import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
 
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
@@ -11,6 +10,27 @@ import org.jbox2d.dynamics.BodyDef;
 import org.jbox2d.dynamics.World;
 
 public final class Cat extends Bullet {
+	/**
+	 * Outline of a cat: its head and its ears
+	 */
+	private static final Shape TEMPLATE;
+
+	static {
+		Path2D.Float template = new Path2D.Float(Path2D.WIND_NON_ZERO);
+		template.append(new Ellipse2D.Float(-RADIUS, -RADIUS, RADIUS * 2,
+				RADIUS * 2), false);
+		// Ears, counterclockwise like the head so that they add to it
+		template.moveTo(0, RADIUS);
+		template.lineTo(-RADIUS / 3, 4 * RADIUS / 3);
+		template.lineTo(-RADIUS / 2, RADIUS);
+		template.closePath();
+		template.moveTo(0, RADIUS);
+		template.lineTo(RADIUS / 2, RADIUS);
+		template.lineTo(RADIUS / 3, 4 * RADIUS / 3);
+		template.closePath();
+		TEMPLATE = template;
+	}
+
 	/**
 	 * Create a cat
 	 * 
@@ -25,7 +45,7 @@ public final class Cat extends Bullet {
 	 * @return new Cat
 	 */
 	public static Cat create(World world, Vec2 position, Vec2 velocity,
-			Float angularVelocity) {
+			float angularVelocity) {
 		Body body;
 		BodyDef bodyDef = getBodyDef(position, velocity, angularVelocity);
 		do {
@@ -36,26 +56,8 @@ public final class Cat extends Bullet {
 	}
 
 	@Override
-	public Shape getGraphicShape() {
-		Point position = getGraphicPosition();
-		int radiusX = Math.abs(Graphics.gameToGraphicX(getRadius()));
-		int radiusY = Math.abs(Graphics.gameToGraphicY(getRadius()));
-		Shape shape = super.getGraphicShape();
-		Area area = new Area(shape);
-
-		// Add ears
-		Polygon ear = new Polygon();
-		ear.addPoint(position.x, position.y - radiusY);
-		ear.addPoint(position.x - radiusX / 3, position.y - (4 * radiusY) / 3);
-		ear.addPoint(position.x - radiusX / 2, position.y - radiusY);
-		area.add(new Area(transformShape(ear)));
-		ear = new Polygon();
-		ear.addPoint(position.x, position.y - radiusY);
-		ear.addPoint(position.x + radiusX / 3, position.y - (4 * radiusY) / 3);
-		ear.addPoint(position.x + radiusX / 2, position.y - radiusY);
-		area.add(new Area(transformShape(ear)));
-
-		return shape;
+	protected Shape getTemplate() {
+		return TEMPLATE;
 	}
 
 	private Cat(Body body) {
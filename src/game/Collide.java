@@ -1,34 +1,134 @@
 package game;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
 import org.jbox2d.callbacks.ContactImpulse;
 import org.jbox2d.callbacks.ContactListener;
 import org.jbox2d.collision.Manifold;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.contacts.Contact;
 
+/**
+ * Listener of the contacts of a world. Contacts are recorded during the step
+ * and dispatched afterwards, by {@link #dispatch(Round, List)}, through tables of
+ * handlers indexed by the kinds of the two elements in contact.
+ */
 public class Collide implements ContactListener {
+	/**
+	 * Type of a recorded contact
+	 */
+	private static final byte BEGIN = 0;
+	private static final byte END = 1;
+	/**
+	 * Index of the walls in the handler tables, after the kinds of elements
+	 */
+	private static final int WALL = ElementKind.values().length;
+	/**
+	 * Number of kinds in the handler tables
+	 */
+	private static final int KINDS = WALL + 1;
+	/**
+	 * Handlers of the contacts, indexed by kind * KINDS + other kind
+	 */
+	private static final ContactHandler[] BEGIN_HANDLERS = new ContactHandler[KINDS * KINDS];
+	private static final ContactHandler[] END_HANDLERS = new ContactHandler[KINDS * KINDS];
+
+	static {
+		for (int kind = 0; kind < KINDS; kind++) {
+			for (int other = 0; other < KINDS; other++) {
+				BEGIN_HANDLERS[kind * KINDS + other] = beginHandler(kind, other);
+				END_HANDLERS[kind * KINDS + other] = endHandler(kind, other);
+			}
+		}
+	}
+
+	/**
+	 * Number of contacts which began
+	 */
+	private volatile long contacts = 0;
+	/**
+	 * Number of the step being calculated
+	 */
+	private long step = 0;
+	/**
+	 * Where contacts are logged
+	 */
+	private EventLog log = EventLog.getDefault();
+	/**
+	 * Where contacts are counted
+	 */
+	private Metrics metrics = Metrics.getDefault();
+	/**
+	 * Contacts recorded during the step
+	 */
+	private int size = 0;
+	private byte[] types = new byte[16];
+	private Body[] bodiesA = new Body[16];
+	private Body[] bodiesB = new Body[16];
+
+	/**
+	 * Set the number of the step being calculated, recorded with contacts.
+	 * 
+	 * @param step
+	 *            number of the step
+	 */
+	void setStep(long step) {
+		this.step = step;
+	}
+
+	/**
+	 * Set the log where contacts are recorded.
+	 * 
+	 * @param log
+	 *            of the contacts
+	 */
+	void setEventLog(EventLog log) {
+		this.log = Objects.requireNonNull(log);
+	}
+
+	/**
+	 * Set the metrics where contacts are counted.
+	 * 
+	 * @param metrics
+	 *            of the contacts
+	 */
+	void setMetrics(Metrics metrics) {
+		this.metrics = Objects.requireNonNull(metrics);
+	}
+
+	/**
+	 * Get the id of the element of a body, for logs.
+	 * 
+	 * @param body
+	 *            of the element
+	 * @return id of the element, -1 if body is not an element (a wall)
+	 */
+	private static int getId(Body body) {
+		Object element = body.getUserData();
+		return element instanceof GameElement ? ((GameElement) element)
+				.getId() : -1;
+	}
+
 	@Override
 	public void beginContact(Contact contact) {
 		Body bodyA = contact.getFixtureA().getBody();
 		Body bodyB = contact.getFixtureB().getBody();
+		contacts++;
+		metrics.recordContact();
 
-		System.out.println("collision: " + bodyA.getUserData() + " - "
-				+ bodyB.getUserData());
-
-		bulletBeginContact(bodyA.getUserData(), bodyB);
-		bulletBeginContact(bodyB.getUserData(), bodyA);
+		log.record(EventKind.BEGIN_CONTACT, step, getId(bodyA), getId(bodyB));
+		add(BEGIN, bodyA, bodyB);
 	}
 
 	/**
-	 * Call bullet.beginContact(body) if bullet is effectively a Bullet
-	 * @param bullet
-	 * @param body
+	 * Get the number of contacts which began.
+	 * 
+	 * @return number of contacts
 	 */
-	private void bulletBeginContact(Object bullet, Body body) {
-		if (!(bullet instanceof Bullet)) {
-			return;
-		}
-		((Bullet) bullet).beginContact(body);
+	public long getContactCount() {
+		return contacts;
 	}
 
 	@Override
@@ -36,23 +136,136 @@ public class Collide implements ContactListener {
 		Body bodyA = contact.getFixtureA().getBody();
 		Body bodyB = contact.getFixtureB().getBody();
 
-		System.out.println("collision: " + bodyA.getUserData() + " - "
-				+ bodyB.getUserData());
+		log.record(EventKind.END_CONTACT, step, getId(bodyA), getId(bodyB));
+		add(END, bodyA, bodyB);
+	}
 
-		bulletEndContact(bodyA.getUserData(), bodyB);
-		bulletEndContact(bodyB.getUserData(), bodyA);
+	/**
+	 * Record a contact, to be dispatched after the step.
+	 * 
+	 * @param type
+	 *            {@link #BEGIN} or {@link #END}
+	 * @param bodyA
+	 *            first body in contact
+	 * @param bodyB
+	 *            second body in contact
+	 */
+	private void add(byte type, Body bodyA, Body bodyB) {
+		if (size == types.length) {
+			int capacity = size * 2;
+			types = Arrays.copyOf(types, capacity);
+			bodiesA = Arrays.copyOf(bodiesA, capacity);
+			bodiesB = Arrays.copyOf(bodiesB, capacity);
+		}
+		types[size] = type;
+		bodiesA[size] = bodyA;
+		bodiesB[size] = bodyB;
+		size++;
 	}
 
 	/**
-	 * Call bullet.endContact(body) if bullet is effectively a Bullet
-	 * @param bullet
-	 * @param body
+	 * Get the index of the kind of a body in the handler tables.
+	 * 
+	 * @param element
+	 *            of the body, null for a wall
+	 * @return index of the kind
+	 */
+	private static int kindIndex(GameElement element) {
+		return element == null ? WALL : element.getKind().ordinal();
+	}
+
+	/**
+	 * Notify the listeners, then call the handlers of the contacts recorded
+	 * during the step, in order, and forget them.
+	 * 
+	 * @param round
+	 *            of the contacts
+	 * @param listeners
+	 *            of the round
+	 */
+	void dispatch(Round round, List<RoundListener> listeners) {
+		FlightEvents.ContactBatch event = new FlightEvents.ContactBatch();
+		event.begin();
+		for (int i = 0; i < size; i++) {
+			ContactHandler[] handlers = types[i] == BEGIN ? BEGIN_HANDLERS
+					: END_HANDLERS;
+			Body bodyA = bodiesA[i];
+			Body bodyB = bodiesB[i];
+			GameElement elementA = (GameElement) bodyA.getUserData();
+			GameElement elementB = (GameElement) bodyB.getUserData();
+			if (!listeners.isEmpty()) {
+				EventKind kind = types[i] == BEGIN ? EventKind.BEGIN_CONTACT
+						: EventKind.END_CONTACT;
+				for (RoundListener listener : listeners) {
+					listener.onContact(round, kind, elementA, elementB);
+				}
+			}
+			int kindA = kindIndex(elementA);
+			int kindB = kindIndex(elementB);
+			ContactHandler handler = handlers[kindA * KINDS + kindB];
+			if (handler != null) {
+				handler.handle(elementA, elementB, bodyB);
+			}
+			handler = handlers[kindB * KINDS + kindA];
+			if (handler != null) {
+				handler.handle(elementB, elementA, bodyA);
+			}
+			bodiesA[i] = null;
+			bodiesB[i] = null;
+		}
+		if (event.shouldCommit()) {
+			event.step = step;
+			event.contacts = size;
+			event.commit();
+		}
+		size = 0;
+	}
+
+	/**
+	 * Get the number of contacts recorded and not dispatched yet.
+	 * 
+	 * @return number of contacts
+	 */
+	int getPendingCount() {
+		return size;
+	}
+
+	/**
+	 * Get the reaction of an element when a contact with another begins.
+	 * 
+	 * @param kind
+	 *            index of the element which reacts
+	 * @param other
+	 *            index of the element in contact
+	 * @return handler, null if the element does not react
+	 */
+	private static ContactHandler beginHandler(int kind, int other) {
+		if (kind != ElementKind.BULLET.ordinal()) {
+			return null;
+		}
+		if (other == ElementKind.GOAL.ordinal()) {
+			return (element, goal, body) -> {
+				((Goal) goal).receive((Bullet) element);
+				((Bullet) element).beginContact(body);
+			};
+		}
+		return (element, otherElement, body) -> ((Bullet) element).beginContact(body);
+	}
+
+	/**
+	 * Get the reaction of an element when a contact with another ends.
+	 * 
+	 * @param kind
+	 *            index of the element which reacts
+	 * @param other
+	 *            index of the element in contact
+	 * @return handler, null if the element does not react
 	 */
-	private void bulletEndContact(Object bullet, Body body) {
-		if (!(bullet instanceof Bullet)) {
-			return;
+	private static ContactHandler endHandler(int kind, int other) {
+		if (kind != ElementKind.BULLET.ordinal()) {
+			return null;
 		}
-		((Bullet) bullet).endContact(body);
+		return (element, otherElement, body) -> ((Bullet) element).endContact(body);
 	}
 
 	@Override
@@ -0,0 +1,21 @@
+package game;
+
+import org.jbox2d.dynamics.Body;
+
+/**
+ * Reaction of an element to a contact with another body.
+ */
+@FunctionalInterface
+interface ContactHandler {
+	/**
+	 * Handle a contact.
+	 * 
+	 * @param element
+	 *            which reacts
+	 * @param other
+	 *            element in contact, null for a wall
+	 * @param otherBody
+	 *            body in contact
+	 */
+	void handle(GameElement element, GameElement other, Body otherBody);
+}
@@ -0,0 +1,8 @@
+package game;
+
+/**
+ * Kind of the elements of a round.
+ */
+public enum ElementKind {
+	LAUNCHER, GOAL, BULLET
+}
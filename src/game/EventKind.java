@@ -0,0 +1,26 @@
+package game;
+
+import java.util.Objects;
+
+/**
+ * Kind of the events recorded into an {@link EventLog}.
+ */
+public enum EventKind {
+	BEGIN_CONTACT(LogLevel.DEBUG), END_CONTACT(LogLevel.DEBUG), ROUND_END(
+			LogLevel.INFO), LAUNCH(LogLevel.DEBUG);
+
+	private final LogLevel level;
+
+	private EventKind(LogLevel level) {
+		this.level = Objects.requireNonNull(level);
+	}
+
+	/**
+	 * Get the level of the events of this kind
+	 * 
+	 * @return level
+	 */
+	public LogLevel getLevel() {
+		return level;
+	}
+}
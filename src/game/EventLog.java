@@ -0,0 +1,326 @@
+package game;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log of the events of the rounds. Events are fixed-size records (step, ids
+ * of two elements, kind) written into a preallocated ring buffer without
+ * allocation nor lock, and printed by a background thread. When the ring is
+ * full, new events are dropped instead of waiting for the printer. The
+ * printer waits longer and longer while there is nothing to print, and
+ * stops when the log is closed.
+ */
+public final class EventLog implements AutoCloseable {
+	/**
+	 * Shortest time the printer waits when there is no event to print
+	 */
+	private static final long IDLE_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+	/**
+	 * Longest time the printer waits when there is no event to print
+	 */
+	private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS
+			.toNanos(100);
+	/**
+	 * System property giving the level of the default log
+	 */
+	static final String LEVEL_PROPERTY = "game.log.level";
+	/**
+	 * Log used by the rounds unless another one is given. Its level is read
+	 * from the system property {@link #LEVEL_PROPERTY}. It is WARNING by
+	 * default, so that batches and tests print nothing; the game turns INFO
+	 * on.
+	 */
+	private static final EventLog DEFAULT = create(1 << 16,
+			parseLevel(System.getProperty(LEVEL_PROPERTY)), System.out);
+	private static final EventKind[] KINDS = EventKind.values();
+	private static final Outcome[] OUTCOMES = Outcome.values();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(DEFAULT::flush));
+	}
+
+	/**
+	 * Minimum level of the events recorded
+	 */
+	private volatile LogLevel level;
+	/**
+	 * Where events are printed
+	 */
+	private final PrintStream out;
+	/**
+	 * True if out is closed with the log
+	 */
+	private final boolean ownsOut;
+	private final int mask;
+	private final long[] steps;
+	private final int[] firsts;
+	private final int[] seconds;
+	private final byte[] kinds;
+	/**
+	 * For each slot, 1 + sequence number of the event it holds
+	 */
+	private final AtomicLongArray published;
+	/**
+	 * Number of events claimed by writers
+	 */
+	private final AtomicLong claimed = new AtomicLong();
+	/**
+	 * Number of events printed
+	 */
+	private volatile long consumed = 0;
+	/**
+	 * Number of events dropped because the ring was full
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+	/**
+	 * True once the log is closed
+	 */
+	private volatile boolean closed;
+	/**
+	 * Thread printing the events
+	 */
+	private Thread printer;
+
+	private EventLog(int capacity, LogLevel level, PrintStream out,
+			boolean ownsOut) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException(
+					"Capacity must be a power of two.");
+		}
+		this.level = Objects.requireNonNull(level);
+		this.out = Objects.requireNonNull(out);
+		this.ownsOut = ownsOut;
+		mask = capacity - 1;
+		steps = new long[capacity];
+		firsts = new int[capacity];
+		seconds = new int[capacity];
+		kinds = new byte[capacity];
+		published = new AtomicLongArray(capacity);
+	}
+
+	/**
+	 * Create a log printing its events into out.
+	 *
+	 * @param capacity
+	 *            number of events the ring can hold, a power of two
+	 * @param level
+	 *            minimum level of the events recorded
+	 * @param out
+	 *            where events are printed
+	 * @return new EventLog
+	 */
+	public static EventLog create(int capacity, LogLevel level,
+			PrintStream out) {
+		return create(capacity, level, out, false);
+	}
+
+	private static EventLog create(int capacity, LogLevel level,
+			PrintStream out, boolean ownsOut) {
+		EventLog log = new EventLog(capacity, level, out, ownsOut);
+		log.printer = new Thread(log::print, "event-log");
+		log.printer.setDaemon(true);
+		log.printer.start();
+		return log;
+	}
+
+	/**
+	 * Create a log printing its events into a file, closed with the log.
+	 *
+	 * @param capacity
+	 *            number of events the ring can hold, a power of two
+	 * @param level
+	 *            minimum level of the events recorded
+	 * @param path
+	 *            of the file
+	 * @return new EventLog
+	 * @throws FileNotFoundException
+	 *             if the file cannot be opened
+	 */
+	public static EventLog create(int capacity, LogLevel level, String path)
+			throws FileNotFoundException {
+		return create(capacity, level, new PrintStream(new FileOutputStream(
+				path), false), true);
+	}
+
+	/**
+	 * Parse the level of the default log.
+	 *
+	 * @param name
+	 *            of the level, null for WARNING
+	 * @return level named name, WARNING if there is none
+	 */
+	private static LogLevel parseLevel(String name) {
+		if (name == null) {
+			return LogLevel.WARNING;
+		}
+		try {
+			return LogLevel.valueOf(name.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			System.err.println("Unknown log level " + name
+					+ ", WARNING used instead.");
+			return LogLevel.WARNING;
+		}
+	}
+
+	/**
+	 * Get the log used by the rounds unless another one is given.
+	 *
+	 * @return default log
+	 */
+	public static EventLog getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Check if events of a level are recorded.
+	 *
+	 * @param level
+	 *            to check
+	 * @return True if recorded
+	 */
+	public boolean isEnabled(LogLevel level) {
+		return level.compareTo(this.level) >= 0;
+	}
+
+	/**
+	 * Change the minimum level of the events recorded.
+	 *
+	 * @param level
+	 *            minimum level of the events recorded from now on
+	 */
+	public void setLevel(LogLevel level) {
+		this.level = Objects.requireNonNull(level);
+	}
+
+	/**
+	 * Record an event. Never blocks: the event is dropped if its level is
+	 * filtered, if the ring is full or if the log is closed.
+	 *
+	 * @param kind
+	 *            of the event
+	 * @param step
+	 *            number of the step
+	 * @param first
+	 *            id of the first element, -1 if none, or ordinal of the
+	 *            {@link Outcome} for {@link EventKind#ROUND_END}
+	 * @param second
+	 *            id of the second element, -1 if none
+	 * @return True if the event has been recorded
+	 */
+	public boolean record(EventKind kind, long step, int first, int second) {
+		if (!isEnabled(kind.getLevel()) || closed) {
+			return false;
+		}
+		long sequence;
+		do {
+			sequence = claimed.get();
+			if (sequence - consumed > mask) {
+				dropped.incrementAndGet();
+				return false;
+			}
+		} while (!claimed.compareAndSet(sequence, sequence + 1));
+		int slot = (int) sequence & mask;
+		steps[slot] = step;
+		firsts[slot] = first;
+		seconds[slot] = second;
+		kinds[slot] = (byte) kind.ordinal();
+		published.lazySet(slot, sequence + 1);
+		return true;
+	}
+
+	/**
+	 * Get the number of events dropped because the ring was full.
+	 *
+	 * @return number of events dropped
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Wait, at most one second, until all the events recorded so far are
+	 * printed.
+	 */
+	public void flush() {
+		long target = claimed.get();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+		LockSupport.unpark(printer);
+		while (consumed < target && System.nanoTime() < deadline) {
+			LockSupport.parkNanos(IDLE_NANOS);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Print the events recorded so far, stop the printer and close the file
+	 * of the log, if any. Events recorded afterwards are dropped.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark(printer);
+		try {
+			printer.join(TimeUnit.SECONDS.toMillis(1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (ownsOut) {
+			out.close();
+		} else {
+			out.flush();
+		}
+	}
+
+	/**
+	 * Check if the log is closed.
+	 *
+	 * @return True if closed
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Print the events as soon as they are published, until the log is
+	 * closed. Run by the printer thread.
+	 */
+	private void print() {
+		StringBuilder builder = new StringBuilder();
+		long idle = 0;
+		while (true) {
+			long sequence = consumed;
+			int slot = (int) sequence & mask;
+			if (published.get(slot) != sequence + 1) {
+				if (closed && sequence == claimed.get()) {
+					return;
+				}
+				if (idle == 0) {
+					out.flush();
+				}
+				// Waits longer each time nothing is printed
+				idle = Math.min(MAX_IDLE_NANOS, Math.max(IDLE_NANOS, idle * 2));
+				LockSupport.parkNanos(this, idle);
+				continue;
+			}
+			idle = 0;
+			EventKind kind = KINDS[kinds[slot]];
+			builder.setLength(0);
+			builder.append('[').append(kind.getLevel()).append("] step ")
+					.append(steps[slot]).append(' ').append(kind).append(' ');
+			if (kind == EventKind.ROUND_END) {
+				builder.append(OUTCOMES[firsts[slot]]);
+			} else {
+				builder.append(firsts[slot]).append(' ').append(seconds[slot]);
+			}
+			consumed = sequence + 1;
+			out.println(builder);
+		}
+	}
+}
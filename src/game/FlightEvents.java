@@ -0,0 +1,125 @@
+package game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Events of the game for the JDK Flight Recorder. They are only filled and
+ * committed while a recording asks for them: otherwise creating one and
+ * checking {@link Event#shouldCommit()} is all they cost, and the JIT
+ * removes even the allocation.
+ *
+ * Start a recording with -XX:StartFlightRecording=filename=game.jfr, then
+ * turn it into a timeline with {@link TimelineExport}.
+ */
+public final class FlightEvents {
+	private static final String CATEGORY = "Save the Kitten";
+
+	private FlightEvents() {
+	}
+
+	/**
+	 * Calculation of a step of a round
+	 */
+	@Name("game.Step")
+	@Label("Step")
+	@Category({ CATEGORY, "Simulation" })
+	@Description("Calculation of a step of a round")
+	@StackTrace(false)
+	public static final class Step extends Event {
+		@Label("Step")
+		long step;
+		@Label("Bullets in play")
+		int bullets;
+		@Label("Contacts begun")
+		int contacts;
+	}
+
+	/**
+	 * Dispatch of the contacts recorded during a step
+	 */
+	@Name("game.ContactBatch")
+	@Label("Contact Batch")
+	@Category({ CATEGORY, "Simulation" })
+	@Description("Dispatch of the contacts recorded during a step")
+	@StackTrace(false)
+	public static final class ContactBatch extends Event {
+		@Label("Step")
+		long step;
+		@Label("Contacts")
+		int contacts;
+	}
+
+	/**
+	 * Rendering of a frame
+	 */
+	@Name("game.Frame")
+	@Label("Frame")
+	@Category({ CATEGORY, "Rendering" })
+	@Description("Rendering of a frame of a round")
+	@StackTrace(false)
+	public static final class Frame extends Event {
+		@Label("Step")
+		long step;
+		@Label("Bullets in play")
+		int bullets;
+	}
+
+	/**
+	 * Entry of a bullet into the world
+	 */
+	@Name("game.BulletActivation")
+	@Label("Bullet Activation")
+	@Category({ CATEGORY, "Simulation" })
+	@Description("Entry of a bullet into the world")
+	@StackTrace(false)
+	public static final class BulletActivation extends Event {
+		@Label("Step")
+		long step;
+		@Label("Bullet")
+		int bullet;
+		@Label("Type")
+		String type;
+	}
+
+	/**
+	 * Change of the state of a round: start, pause, resume or end
+	 */
+	@Name("game.RoundTransition")
+	@Label("Round Transition")
+	@Category({ CATEGORY, "Round" })
+	@Description("Start, pause, resume or end of a round")
+	@StackTrace(false)
+	public static final class RoundTransition extends Event {
+		@Label("Step")
+		long step;
+		@Label("Transition")
+		String transition;
+		@Label("Outcome")
+		String outcome;
+	}
+
+	/**
+	 * Record a change of the state of a round, if a recording asks for it.
+	 *
+	 * @param step
+	 *            number of steps calculated
+	 * @param transition
+	 *            name of the change
+	 * @param outcome
+	 *            of the round, null if not ended
+	 */
+	static void transition(long step, String transition, Outcome outcome) {
+		RoundTransition event = new RoundTransition();
+		if (event.shouldCommit()) {
+			event.step = step;
+			event.transition = transition;
+			event.outcome = outcome == null ? null : outcome.name();
+			event.commit();
+		}
+	}
+}
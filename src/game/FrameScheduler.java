@@ -0,0 +1,108 @@
+package game;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pace of the frames of the renderer. It parks the rendering thread until
+ * the next frame is due, instead of polling the time. When a frame is so
+ * late that the next ones are already due, they are dropped: the renderer
+ * goes on with the frame due now rather than rendering the late ones back
+ * to back.
+ */
+public final class FrameScheduler {
+	/**
+	 * Number of frames per second unless another one is given
+	 */
+	public static final int DEFAULT_FPS = 60;
+	/**
+	 * Duration of a frame in nanoseconds
+	 */
+	private final long frameNanos;
+	/**
+	 * Time when the next frame is due
+	 */
+	private long deadline;
+	/**
+	 * Delay between the time the last frame was due and the time it began
+	 */
+	private long jitter;
+
+	private FrameScheduler(long frameNanos) {
+		this.frameNanos = frameNanos;
+	}
+
+	/**
+	 * Create a scheduler of fps frames per second.
+	 *
+	 * @param fps
+	 *            number of frames per second
+	 * @return new FrameScheduler, due at once
+	 */
+	public static FrameScheduler create(int fps) {
+		if (fps <= 0) {
+			throw new IllegalArgumentException(
+					"Frame rate must be positive.");
+		}
+		FrameScheduler scheduler = new FrameScheduler(
+				TimeUnit.SECONDS.toNanos(1) / fps);
+		scheduler.start();
+		return scheduler;
+	}
+
+	/**
+	 * Make the next frame due now.
+	 */
+	public void start() {
+		deadline = System.nanoTime();
+	}
+
+	/**
+	 * Get the duration of a frame.
+	 *
+	 * @return duration in nanoseconds
+	 */
+	public long getFrameNanos() {
+		return frameNanos;
+	}
+
+	/**
+	 * Get the delay between the time the last frame was due and the time it
+	 * began.
+	 *
+	 * @return delay in nanoseconds
+	 */
+	public long getJitter() {
+		return jitter;
+	}
+
+	/**
+	 * Park current thread until the next frame is due. The frames already
+	 * missed are dropped, and recorded with the jitter of the frame into
+	 * metrics.
+	 *
+	 * @param metrics
+	 *            where dropped frames and jitter are recorded
+	 * @return number of frames dropped
+	 * @throws InterruptedException
+	 *             if the thread is interrupted while waiting
+	 */
+	public int awaitNextFrame(Metrics metrics) throws InterruptedException {
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(this, remaining);
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+		long late = System.nanoTime() - deadline;
+		long dropped = late / frameNanos;
+		jitter = late - dropped * frameNanos;
+		deadline += (dropped + 1) * frameNanos;
+		metrics.recordFrameJitter(jitter);
+		if (dropped > 0) {
+			metrics.recordDroppedFrames(dropped);
+		}
+		return (int) Math.min(Integer.MAX_VALUE, dropped);
+	}
+}
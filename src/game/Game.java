@@ -2,10 +2,11 @@ package game;
 
 import java.awt.Color;
 import java.awt.Font;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
 
-import org.jbox2d.common.Vec2;
-import org.jbox2d.dynamics.World;
+import javax.management.JMException;
 
 import fr.umlv.zen3.Application;
 import fr.umlv.zen3.ApplicationContext;
@@ -13,31 +14,52 @@ import fr.umlv.zen3.KeyboardEvent;
 import fr.umlv.zen3.KeyboardKey;
 
 public class Game {
+	/**
+	 * Pixels the camera moves when an arrow is pressed
+	 */
+	private static final float PAN_STEP = 80;
+	/**
+	 * Factor of the zoom when Z or X is pressed
+	 */
+	private static final float ZOOM_STEP = 1.25f;
 
 	/**
-	 * Get a round.
+	 * Get the campaign of the game. It plays the levels of the pack given by
+	 * the system property game.levels from the level game.level (0 by
+	 * default) if set, the default round otherwise. The seeds of its rounds
+	 * are drawn from the system property game.seed if set.
 	 * 
-	 * @param context
-	 *            of the current game
-	 * @return new Round
-	 * @throws SecurityException
-	 * @throws NoSuchMethodException
-	 * @throws InvocationTargetException
-	 * @throws IllegalArgumentException
-	 * @throws IllegalAccessException
+	 * @return new Campaign
+	 * @throws IOException
+	 *             if the pack cannot be read
+	 */
+	public Campaign getCampaign() throws IOException {
+		Long seed = Long.getLong("game.seed");
+		long campaignSeed = seed == null ? new Random().nextLong() : seed;
+		String levels = System.getProperty("game.levels");
+		if (levels == null) {
+			return Campaign.create(
+					Collections.singletonList(Levels.getDefaultConfig(0)),
+					campaignSeed);
+		}
+		return Campaign.create(LevelPack.open(levels),
+				Integer.getInteger("game.level", 0), campaignSeed);
+	}
+
+	/**
+	 * Record a round into the file given by the system property game.replay
+	 * if set. Each round played overwrites the replay of the previous one.
+	 * 
+	 * @param round
+	 *            to record, not started
+	 * @throws IOException
+	 *             if the replay cannot be written
 	 */
-	public Round getRound(ApplicationContext context)
-			throws IllegalAccessException, IllegalArgumentException,
-			InvocationTargetException, NoSuchMethodException, SecurityException {
-		World world = new World(new Vec2(0, 0));
-		Round round = Round.create(world, 5f, 5f);
-		Launcher launcher = Launcher.create(world, new Vec2(3, 2), 1, new Vec2(
-				-0.001f, -0.001f));
-		launcher.addBullet(Cat.class);
-		round.add(launcher);
-		round.add(Goal.create(world, new Vec2(3, 3)));
-		round.add(Goal.create(world, new Vec2(2, 3)));
-		return round;
+	private void record(Round round) throws IOException {
+		String replay = System.getProperty("game.replay");
+		if (replay != null) {
+			ReplayRecorder.record(round, replay);
+		}
 	}
 
 	/**
@@ -47,21 +69,18 @@ public class Game {
 	 *            of the game
 	 */
 	public void waitForStart(ApplicationContext context, Round round) {
-		KeyboardEvent key;
 		context.render(g -> {
 			g.setColor(Color.BLACK);
 			g.setBackground(Graphics.BACKGROUND_COLOR);
 			g.clearRect(0, 0, Graphics.WIDTH, Graphics.HEIGHT);
 			Graphics.drawGrid(g, 10);
-			round.draw(g);
+			Camera camera = Camera.create();
+			camera.fit(round.getWidth(), round.getHeight(), Graphics.WIDTH,
+					Graphics.HEIGHT);
+			round.draw(g, camera);
 			Graphics.writeTextCentered(g, "Press Space to start the game");
 		});
-		while (true) {
-			key = context.waitKeys();
-			if (KeyboardKey.SPACE.equals(key.getKey())) {
-				break;
-			}
-		}
+		waitForSpace(context);
 		context.render(g -> {
 			g.setBackground(Graphics.BACKGROUND_COLOR);
 			g.clearRect(0, 0, Graphics.WIDTH, Graphics.HEIGHT);
@@ -69,61 +88,173 @@ public class Game {
 	}
 
 	/**
-	 * Start the game.
+	 * React to the keys pressed by the user since the last frame: P pauses
+	 * or resumes the round, the arrows move the camera, Z zooms in, X zooms
+	 * out, C shows the whole round again and H shows or hides the metrics.
+	 * 
+	 * @param context
+	 *            of the game
+	 * @param round
+	 *            being played
 	 */
-	public void runApplication() {
-		Application
-				.run("Save the kitten",
-						Graphics.WIDTH + 1,
-						Graphics.HEIGHT + 1,
-						context -> {
-							Round roundTmp = null;
-							do {
-								try {
-									roundTmp = getRound(context);
-								} catch (Throwable e) {
-									Graphics.addException(context, e);
-								}
-							} while (roundTmp == null);
+	private void handleKeys(ApplicationContext context, Round round) {
+		KeyboardEvent key;
+		while ((key = context.pollKeyboard()) != null) {
+			handleKey(context, round, key.getKey());
+		}
+	}
 
-							final Round round = roundTmp;
+	/**
+	 * React to a key pressed by the user.
+	 * 
+	 * @param context
+	 *            of the game
+	 * @param round
+	 *            being played
+	 * @param key
+	 *            pressed
+	 */
+	private void handleKey(ApplicationContext context, Round round,
+			KeyboardKey key) {
+		Camera camera = Graphics.getCamera(context);
+		switch (key) {
+		case P:
+			if (round.getClock().isPaused()) {
+				round.resume();
+			} else {
+				round.pause();
+			}
+			break;
+		case LEFT:
+			camera.pan(-PAN_STEP, 0);
+			break;
+		case RIGHT:
+			camera.pan(PAN_STEP, 0);
+			break;
+		case UP:
+			camera.pan(0, -PAN_STEP);
+			break;
+		case DOWN:
+			camera.pan(0, PAN_STEP);
+			break;
+		case Z:
+			camera.zoom(ZOOM_STEP);
+			break;
+		case X:
+			camera.zoom(1 / ZOOM_STEP);
+			break;
+		case C:
+			camera.reset();
+			break;
+		case H:
+			Graphics.toggleHud(context);
+			break;
+		default:
+			break;
+		}
+	}
 
-							waitForStart(context, round);
+	/**
+	 * Wait until the user presses space.
+	 * 
+	 * @param context
+	 *            of the game
+	 */
+	private void waitForSpace(ApplicationContext context) {
+		while (true) {
+			KeyboardEvent key = context.waitKeys();
+			if (KeyboardKey.SPACE.equals(key.getKey())) {
+				return;
+			}
+		}
+	}
 
-							new Thread(() -> {
-								round.start();
-							}).start();
+	/**
+	 * Start the game: play the levels of the campaign, going to the next
+	 * level after a victory and playing the level again otherwise. The
+	 * metrics of the game are exposed through JMX.
+	 */
+	public void runApplication() {
+		if (System.getProperty(EventLog.LEVEL_PROPERTY) == null) {
+			EventLog.getDefault().setLevel(LogLevel.INFO);
+		}
+		Application.run("Save the kitten", Graphics.WIDTH + 1,
+				Graphics.HEIGHT + 1, context -> {
+					try {
+						Metrics.getDefault().register();
+					} catch (JMException e) {
+						Graphics.addException(context, e);
+					}
+					Campaign campaignTmp = null;
+					do {
+						try {
+							campaignTmp = getCampaign();
+						} catch (Throwable e) {
+							Graphics.addException(context, e);
+						}
+					} while (campaignTmp == null);
 
-							long previous = System.currentTimeMillis();
-							while (!round.isVictory() && !round.isDefeat()) {
-								if (System.currentTimeMillis() - previous > Graphics.REFRESH_TIME) {
-									context.render(g -> {
-										g.setBackground(Graphics.BACKGROUND_COLOR);
-										Graphics.update(g, round);
-									});
-									previous = System.currentTimeMillis();
-									try {
-										Thread.sleep(Graphics.REFRESH_TIME);
-									} catch (Exception e) {
-										Graphics.addException(
-												context,
-												new IllegalMonitorStateException(
-														"Impossible de mettre en pause le processus d'affichage"));
-									}
-								} else {
-									try {
-										Thread.sleep(1);
-									} catch (Exception e) {
-										Graphics.addException(
-												context,
-												new IllegalMonitorStateException(
-														"Impossible de mettre en pause le processus d'affichage"));
-									}
-								}
+					final Campaign campaign = campaignTmp;
+					try {
+						Round round = campaign.next();
+						record(round);
+						waitForStart(context, round);
+						while (true) {
+							play(context, round);
+							boolean victory = round.getOutcome() == Outcome.VICTORY;
+							boolean last = victory && !campaign.hasNext();
+							EndRound(round, context, !last);
+							if (last) {
+								break;
 							}
+							waitForSpace(context);
+							round = victory ? campaign.next() : campaign.retry();
+							record(round);
+						}
+					} catch (IOException e) {
+						Graphics.addException(context, e);
+					} finally {
+						campaign.close();
+					}
+				});
+	}
 
-							EndRound(round, context);
-						});
+	/**
+	 * Play a round until it ends, showing it at the frame rate given by the
+	 * system property game.fps ({@link FrameScheduler#DEFAULT_FPS} by
+	 * default). Frames which cannot be shown in time are dropped, and frames
+	 * which would show the same picture as the last one are skipped.
+	 * 
+	 * @param context
+	 *            of the game
+	 * @param round
+	 *            to play, not started
+	 */
+	private void play(ApplicationContext context, Round round) {
+		new Thread(() -> {
+			round.start();
+		}).start();
+
+		FrameScheduler scheduler = FrameScheduler.create(Integer.getInteger(
+				"game.fps", FrameScheduler.DEFAULT_FPS));
+		while (!round.getCompletion().isDone()) {
+			try {
+				scheduler.awaitNextFrame(round.getMetrics());
+			} catch (InterruptedException e) {
+				Graphics.addException(context,
+						new IllegalMonitorStateException(
+								"Impossible de mettre en pause le processus d'affichage"));
+			}
+			handleKeys(context, round);
+			if (!Graphics.hasChanged(context, round)) {
+				round.getMetrics().recordSkippedFrame();
+				continue;
+			}
+			context.render(g -> {
+				g.setBackground(Graphics.BACKGROUND_COLOR);
+				Graphics.update(context, g, round);
+			});
+		}
 	}
 
 	/**
@@ -133,19 +264,27 @@ public class Game {
 	 *            to end
 	 * @param context
 	 *            of the game
+	 * @param more
+	 *            True if another round follows
 	 */
-	private void EndRound(Round round, ApplicationContext context) {
+	private void EndRound(Round round, ApplicationContext context,
+			boolean more) {
 		context.render(g -> {
 			g.setBackground(Graphics.BACKGROUND_COLOR);
-			Graphics.update(g, round);
+			Graphics.update(context, g, round);
 			g.setFont(new Font("Helvetica", Font.CENTER_BASELINE, 20));
-			if (round.isVictory()) {
+			Outcome outcome = round.getOutcome();
+			if (outcome == Outcome.VICTORY) {
 				g.setColor(Color.BLUE);
 				Graphics.writeTextCentered(g, "Victory !");
-			} else if (round.isDefeat()) {
+			} else if (outcome == Outcome.DEFEAT) {
 				g.setColor(Color.RED);
 				Graphics.writeTextCentered(g, "Defeat !");
 			}
+			if (more) {
+				Graphics.writeTextCentered(g, "Press Space to continue",
+						Graphics.WIDTH / 2, Graphics.HEIGHT / 2 + 40);
+			}
 		});
 		System.out.println("end.");
 	}
@@ -4,7 +4,9 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
@@ -15,6 +17,29 @@ public abstract class GameElement {
 	 * Body of the element
 	 */
 	private final Body body;
+	/**
+	 * Number of elements already created
+	 */
+	private static final AtomicInteger nbElement = new AtomicInteger();
+	/**
+	 * Unique id of the element
+	 */
+	private final int id = nbElement.getAndIncrement();
+	/**
+	 * Changes of the world queued by the round of the element, null if the
+	 * element is not in a round
+	 */
+	private WorldCommands commands;
+	/**
+	 * Index of the element in its round, as in the snapshots, -1 if the
+	 * element is not in a round
+	 */
+	private int index = -1;
+	/**
+	 * Distance from the center to the farthest point of the template, -1
+	 * until computed
+	 */
+	private float boundingRadius = -1;
 
 	/**
 	 * Create en element with a body.
@@ -27,6 +52,15 @@ public abstract class GameElement {
 		body.setUserData(this);
 	}
 
+	/**
+	 * Get the unique id of the element, used in logs.
+	 * 
+	 * @return id of the element
+	 */
+	public int getId() {
+		return id;
+	}
+
 	/**
 	 * Get the real position of the element in the round
 	 * 
@@ -36,6 +70,31 @@ public abstract class GameElement {
 		return body.getPosition();
 	}
 
+	/**
+	 * Get the angle of the element in the round
+	 * 
+	 * @return Angle of the element in radians.
+	 */
+	public float getAngle() {
+		return body.getAngle();
+	}
+
+	/**
+	 * Get the kind of the element.
+	 * 
+	 * @return Kind of the element.
+	 */
+	public abstract ElementKind getKind();
+
+	/**
+	 * Get the state of the element, as stored in a {@link WorldSnapshot}.
+	 * 
+	 * @return flags of the element.
+	 */
+	public int getStateFlags() {
+		return isActive() ? WorldSnapshot.ACTIVE : 0;
+	}
+
 	/**
 	 * Get the position of the element graphically.
 	 * 
@@ -43,8 +102,36 @@ public abstract class GameElement {
 	 */
 	public Point getGraphicPosition() {
 		Vec2 position = body.getPosition();
-		return new Point(Graphics.gameToGraphicX(position.x),
-				Graphics.gameToGraphicY(position.y));
+		return getGraphicPosition(position.x, position.y);
+	}
+
+	/**
+	 * Write the current position of the element, in pixels, into screen.
+	 * Unlike {@link #getGraphicPosition()}, allocates nothing.
+	 * 
+	 * @param camera
+	 *            of the frame
+	 * @param screen
+	 *            buffer receiving the abscissa then the ordinate
+	 * @param offset
+	 *            of the abscissa in screen
+	 */
+	public void getScreenPosition(Camera camera, float[] screen, int offset) {
+		Vec2 position = body.getPosition();
+		camera.toScreen(position.x, position.y, screen, offset);
+	}
+
+	/**
+	 * Get the graphical position of (x;y).
+	 * 
+	 * @param x
+	 *            in game units
+	 * @param y
+	 *            in game units
+	 * @return Graphical position.
+	 */
+	protected static Point getGraphicPosition(float x, float y) {
+		return new Point(Graphics.gameToGraphicX(x), Graphics.gameToGraphicY(y));
 	}
 
 	/**
@@ -52,7 +139,79 @@ public abstract class GameElement {
 	 * 
 	 * @return Shape of the element
 	 */
-	public abstract Shape getGraphicShape();
+	public Shape getGraphicShape() {
+		return getGraphicShape(getGraphicPosition(), body.getAngle());
+	}
+
+	/**
+	 * Get the graphic shape of the element at a position.
+	 * 
+	 * @param position
+	 *            graphical position of the element
+	 * @param angle
+	 *            of the element
+	 * @return Shape of the element
+	 */
+	public Shape getGraphicShape(Point position, float angle) {
+		return placeTemplate(getTemplate(), position, angle);
+	}
+
+	/**
+	 * Place a template at a graphical position.
+	 * 
+	 * @param template
+	 *            outline in game units
+	 * @param position
+	 *            graphical position of its center
+	 * @param angle
+	 *            of the rotation
+	 * @return new shape in graphic coordinates
+	 */
+	protected static Shape placeTemplate(Shape template, Point position,
+			float angle) {
+		AffineTransform transform = AffineTransform.getTranslateInstance(
+				position.x, position.y);
+		transform.rotate(angle);
+		transform.scale(Graphics.DEFINITION, -Graphics.DEFINITION);
+		return transform.createTransformedShape(template);
+	}
+
+	/**
+	 * Get the outline of the element in game units, centered on (0;0) and
+	 * not rotated. Templates are built once and shared by all the elements
+	 * of a type: they must not be modified.
+	 * 
+	 * @return template of the element
+	 */
+	protected abstract Shape getTemplate();
+
+	/**
+	 * Get the distance from the center of the element to the farthest point
+	 * it draws, whatever its angle.
+	 * 
+	 * @return radius in game units
+	 */
+	float getBoundingRadius() {
+		if (boundingRadius < 0) {
+			boundingRadius = getBoundingRadius(getTemplate());
+		}
+		return boundingRadius;
+	}
+
+	/**
+	 * Get the distance from (0;0) to the farthest corner of the bounds of a
+	 * template.
+	 * 
+	 * @param template
+	 *            outline in game units
+	 * @return radius in game units
+	 */
+	static float getBoundingRadius(Shape template) {
+		Rectangle2D bounds = template.getBounds2D();
+		return (float) Math.hypot(
+				Math.max(-bounds.getMinX(), bounds.getMaxX()),
+				Math.max(-bounds.getMinY(), bounds.getMaxY()));
+	}
 
 	/**
 	 * Enable or disable element.
@@ -61,7 +220,50 @@ public abstract class GameElement {
 	 *            True to enable element
 	 */
 	public void setActive(boolean active) {
-		body.setActive(active);
+		if (commands != null && commands.isDeferring()) {
+			commands.setActive(body, active);
+		} else {
+			body.setActive(active);
+		}
+	}
+
+	/**
+	 * Queue the changes of the body made while the round dispatches contacts.
+	 * 
+	 * @param commands
+	 *            of the round
+	 */
+	void attach(WorldCommands commands) {
+		this.commands = Objects.requireNonNull(commands);
+	}
+
+	/**
+	 * Get the index of the element in its round. Unlike the id, it is the
+	 * same each time a round is created from the same configuration.
+	 * 
+	 * @return index of the element, -1 if not in a round
+	 */
+	int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Set the index of the element in its round.
+	 * 
+	 * @param index
+	 *            of the element
+	 */
+	void setIndex(int index) {
+		this.index = index;
+	}
+
+	/**
+	 * Get the body of the element.
+	 * 
+	 * @return body of the element
+	 */
+	Body getBody() {
+		return body;
 	}
 
 	/**
@@ -100,7 +302,11 @@ public abstract class GameElement {
 	 *            to set
 	 */
 	public void setLinearVelocity(Vec2 velocity) {
-		body.setLinearVelocity(velocity);
+		if (commands != null && commands.isDeferring()) {
+			commands.setLinearVelocity(body, velocity.x, velocity.y);
+		} else {
+			body.setLinearVelocity(velocity);
+		}
 	}
 
 	/**
@@ -124,8 +330,23 @@ public abstract class GameElement {
 	 * @return new shape transformed.
 	 */
 	public Shape transformShape(Shape shape) {
-		Point position = getGraphicPosition();
-		return AffineTransform.getRotateInstance(body.getAngle(), position.x,
+		return transformShape(shape, getGraphicPosition(), body.getAngle());
+	}
+
+	/**
+	 * Transform shape with a rotation around position.
+	 * 
+	 * @param shape
+	 *            to transform.
+	 * @param position
+	 *            graphical center of the rotation.
+	 * @param angle
+	 *            of the rotation.
+	 * @return new shape transformed.
+	 */
+	protected static Shape transformShape(Shape shape, Point position,
+			float angle) {
+		return AffineTransform.getRotateInstance(angle, position.x,
 				position.y).createTransformedShape(shape);
 	}
 
@@ -140,4 +361,69 @@ public abstract class GameElement {
 			graphics.fill(shape);
 		}
 	}
+
+	/**
+	 * Draw element in graphics as stored in a snapshot, between its position
+	 * before the step of the snapshot and its position after.
+	 * 
+	 * @param graphics
+	 * @param snapshot
+	 *            holding the state of the element
+	 * @param index
+	 *            of the element in snapshot
+	 * @param alpha
+	 *            0 for the previous position, 1 for the current one
+	 */
+	public void draw(Graphics2D graphics, WorldSnapshot snapshot, int index,
+			float alpha) {
+		TemplatePainter painter = new TemplatePainter();
+		painter.begin(graphics, Camera.graphic());
+		try {
+			draw(painter, snapshot, index, alpha);
+		} finally {
+			painter.end();
+		}
+	}
+
+	/**
+	 * Fill the template of the element as stored in a snapshot.
+	 * 
+	 * @param painter
+	 *            filling the templates
+	 * @param snapshot
+	 *            holding the state of the element
+	 * @param index
+	 *            of the element in snapshot
+	 * @param alpha
+	 *            0 for the previous position, 1 for the current one
+	 */
+	void draw(TemplatePainter painter, WorldSnapshot snapshot, int index,
+			float alpha) {
+		float[] screen = painter.getScreen();
+		project(painter.getCamera(), snapshot, index, alpha, screen);
+		painter.fill(getClass(), getTemplate(), screen[0], screen[1],
+				screen[2]);
+	}
+
+	/**
+	 * Write the position of the element as stored in a snapshot, in pixels,
+	 * then its angle into screen.
+	 * 
+	 * @param camera
+	 *            of the frame
+	 * @param snapshot
+	 *            holding the state of the element
+	 * @param index
+	 *            of the element in snapshot
+	 * @param alpha
+	 *            0 for the previous position, 1 for the current one
+	 * @param screen
+	 *            buffer of at least three values
+	 */
+	void project(Camera camera, WorldSnapshot snapshot, int index,
+			float alpha, float[] screen) {
+		camera.toScreen(snapshot.getX(index, alpha),
+				snapshot.getY(index, alpha), screen, 0);
+		screen[2] = snapshot.getAngle(index, alpha);
+	}
 }
\ No newline at end of file
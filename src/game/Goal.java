@@ -1,11 +1,12 @@
 package game;
 
-import java.awt.Point;
 import java.awt.Shape;
 import java.awt.geom.Ellipse2D;
 import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.jbox2d.collision.shapes.PolygonShape;
 import org.jbox2d.common.Vec2;
@@ -16,9 +17,22 @@ import org.jbox2d.dynamics.FixtureDef;
 import org.jbox2d.dynamics.World;
 
 public class Goal extends GameElement {
+	/**
+	 * Radius of the goals, in game units
+	 */
+	private static final float RADIUS = .2f;
+	/**
+	 * Outline of a goal
+	 */
+	private static final Shape TEMPLATE = new Ellipse2D.Float(-RADIUS,
+			-RADIUS, RADIUS * 2, RADIUS * 2);
 	private final int nbSlot = 1;
 	private final AtomicInteger nbCat = new AtomicInteger();
 	private final LinkedHashSet<Bullet> bullets = new LinkedHashSet<>();
+	/**
+	 * Called each time the goal receives a bullet
+	 */
+	private final CopyOnWriteArrayList<Consumer<Goal>> receiveListeners = new CopyOnWriteArrayList<>();
 
 	private Goal(Body body) {
 		super(body);
@@ -69,9 +83,20 @@ public class Goal extends GameElement {
 			return false;
 		}
 		bullet.stop();
+		receiveListeners.forEach(listener -> listener.accept(this));
 		return true;
 	}
 
+	/**
+	 * Add a listener called each time the goal receives a bullet.
+	 * 
+	 * @param listener
+	 *            to call with this goal
+	 */
+	public void addReceiveListener(Consumer<Goal> listener) {
+		receiveListeners.add(Objects.requireNonNull(listener));
+	}
+
 	/**
 	 * Check if goal can receive more bullets
 	 * 
@@ -84,7 +109,7 @@ public class Goal extends GameElement {
 	private static FixtureDef getFixtureDef() {
 		FixtureDef fixtureDef = new FixtureDef();
 		PolygonShape dynamicBox = new PolygonShape();
-		dynamicBox.setRadius(.2f);
+		dynamicBox.setRadius(RADIUS);
 		dynamicBox.setAsBox(.4f, .4f);
 		fixtureDef.shape = dynamicBox;
 		fixtureDef.density = 1;
@@ -93,10 +118,17 @@ public class Goal extends GameElement {
 	}
 
 	@Override
-	public Shape getGraphicShape() {
-		Point position = getGraphicPosition();
-		float radius = Math.abs(Graphics.gameToGraphicY(getRadius()));
-		return new Ellipse2D.Float(position.x - radius, position.y - radius,
-				radius * 2, radius * 2);
+	public ElementKind getKind() {
+		return ElementKind.GOAL;
+	}
+
+	@Override
+	public int getStateFlags() {
+		return super.getStateFlags() | (isFull() ? WorldSnapshot.FULL : 0);
+	}
+
+	@Override
+	protected Shape getTemplate() {
+		return TEMPLATE;
 	}
 }
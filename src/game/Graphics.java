@@ -1,10 +1,10 @@
 package game;
 
 import java.awt.Color;
-import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.util.concurrent.ConcurrentHashMap;
@@ -24,10 +24,6 @@ public class Graphics {
 	 * Background color of the panel
 	 */
 	public static final Color BACKGROUND_COLOR = Color.WHITE;
-	/**
-	 * Time between 2 panel's update
-	 */
-	public static final long REFRESH_TIME = 2;
 	/**
 	 * Use for rounded position
 	 */
@@ -40,6 +36,18 @@ public class Graphics {
 	 * Store exception actually displayed into each context
 	 */
 	private static final ConcurrentHashMap<ApplicationContext, Throwable> exceptions = new ConcurrentHashMap<>();
+	/**
+	 * Back buffer and static scene of each context, reused from one frame to
+	 * another
+	 */
+	private static final ConcurrentHashMap<ApplicationContext, Layers> layers = new ConcurrentHashMap<>();
+	/**
+	 * Number of threads composing the frames, read from the system property
+	 * game.render.threads (1 by default: frames are composed by the thread
+	 * showing them)
+	 */
+	private static final int RENDER_THREADS = Integer.getInteger(
+			"game.render.threads", 1);
 
 	/**
 	 * Write text centered on windows
@@ -81,11 +89,28 @@ public class Graphics {
 	 *            between two line.
 	 */
 	public static void drawGrid(Graphics2D graphics, float step) {
+		drawGrid(graphics, step, WIDTH, HEIGHT);
+	}
+
+	/**
+	 * Draw grid on each step pixel of an area.
+	 * 
+	 * @param graphics
+	 *            to draw in.
+	 * @param step
+	 *            between two line.
+	 * @param width
+	 *            of the area in pixels
+	 * @param height
+	 *            of the area in pixels
+	 */
+	static void drawGrid(Graphics2D graphics, float step, int width,
+			int height) {
 		graphics.setColor(Color.LIGHT_GRAY);
-		for (float i = 0; i < Graphics.WIDTH; i = i + step) {
+		for (float i = 0; i < Math.max(width, height); i = i + step) {
 			int v = Math.round(i);
-			graphics.drawLine(v, 0, v, Graphics.HEIGHT);
-			graphics.drawLine(0, v, Graphics.WIDTH, v);
+			graphics.drawLine(v, 0, v, height);
+			graphics.drawLine(0, v, width, v);
 		}
 	}
 
@@ -98,36 +123,329 @@ public class Graphics {
 	 *            actual Round to paint
 	 */
 	public static void update(Graphics2D graphics2D, Round round) {
-		Dimension dimension = new Dimension(Math.round(DEFINITION
-				* round.getWidth()), Math.round(DEFINITION * round.getHeight()));
-		BufferedImage image = new BufferedImage(dimension.width,
-				dimension.height, BufferedImage.TYPE_INT_ARGB);
-		Graphics2D graphics = image.createGraphics();
-		graphics.setBackground(graphics2D.getBackground());
-		graphics.clearRect(0, 0, image.getWidth(), image.getHeight());
-
-		graphics.translate(0, dimension.getHeight());
-
-		drawGrid(graphics, 10);
-		round.draw(graphics);
-
-		graphics.setColor(Color.GREEN);
-		for (GameElement element : round.getLaunchers()) {
-			element.draw(graphics);
+		WorldSnapshot snapshot = round.getSnapshot();
+		TemplatePainter painter = new TemplatePainter();
+		Camera camera = Camera.create();
+		camera.fit(round.getWidth(), round.getHeight(), WIDTH, HEIGHT);
+		drawScene(graphics2D, round, snapshot, painter, camera);
+		drawBullets(graphics2D, snapshot, painter, camera, round.getClock()
+				.getAlpha());
+	}
+
+	/**
+	 * Get the color of an element.
+	 * 
+	 * @param kind
+	 *            of the element
+	 * @return color used to paint the element
+	 */
+	static Color getColor(ElementKind kind) {
+		switch (kind) {
+		case LAUNCHER:
+			return Color.GREEN;
+		case GOAL:
+			return Color.BLUE;
+		default:
+			return Color.BLACK;
 		}
+	}
 
-		graphics.setColor(Color.BLUE);
-		for (GameElement element : round.getGoals()) {
-			element.draw(graphics);
+	/**
+	 * Draw the static part of the round: grid, area, walls, launchers and
+	 * goals. Only the launchers and goals near the view of the camera are
+	 * drawn.
+	 * 
+	 * @param graphics2D
+	 *            where to paint
+	 * @param round
+	 *            actual Round to paint
+	 * @param snapshot
+	 *            of the round
+	 * @param painter
+	 *            filling the elements
+	 * @param camera
+	 *            of the frame
+	 */
+	static void drawScene(Graphics2D graphics2D, Round round,
+			WorldSnapshot snapshot, TemplatePainter painter, Camera camera) {
+		graphics2D.clearRect(0, 0, camera.getScreenWidth(),
+				camera.getScreenHeight());
+		drawGrid(graphics2D, 10, camera.getScreenWidth(),
+				camera.getScreenHeight());
+		round.draw(graphics2D, camera);
+
+		SpatialGrid grid = snapshot.getStaticGrid();
+		int[] visible = painter.getVisible(grid.size());
+		int count = grid.query(camera.getMinX(), camera.getMinY(),
+				camera.getMaxX(), camera.getMaxY(), visible);
+		painter.begin(graphics2D, camera);
+		for (int i = 0; i < count; i++) {
+			GameElement element = snapshot.getElement(visible[i]);
+			graphics2D.setColor(getColor(element.getKind()));
+			element.draw(painter, snapshot, visible[i], 1);
 		}
+		painter.end();
+	}
 
-		graphics.setColor(Color.BLACK);
-		for (GameElement element : round.getBullets()) {
-			element.draw(graphics);
+	/**
+	 * Draw the moving part of the round: the bullets near the view of the
+	 * camera, interpolated between the last two steps.
+	 * 
+	 * @param graphics2D
+	 *            where to paint
+	 * @param snapshot
+	 *            of the round
+	 * @param painter
+	 *            filling the elements
+	 * @param camera
+	 *            of the frame
+	 * @param alpha
+	 *            interpolation factor between the last two steps
+	 */
+	static void drawBullets(Graphics2D graphics2D, WorldSnapshot snapshot,
+			TemplatePainter painter, Camera camera, float alpha) {
+		drawBullets(graphics2D, snapshot, painter, camera, alpha,
+				camera.getMinY(), camera.getMaxY());
+	}
+
+	/**
+	 * Draw the bullets near a horizontal band of the view of the camera,
+	 * interpolated between the last two steps.
+	 * 
+	 * @param graphics2D
+	 *            where to paint, clipped to the band
+	 * @param snapshot
+	 *            of the round
+	 * @param painter
+	 *            filling the elements
+	 * @param camera
+	 *            of the frame
+	 * @param alpha
+	 *            interpolation factor between the last two steps
+	 * @param minY
+	 *            bottom of the band, in game units
+	 * @param maxY
+	 *            top of the band, in game units
+	 */
+	static void drawBullets(Graphics2D graphics2D, WorldSnapshot snapshot,
+			TemplatePainter painter, Camera camera, float alpha, float minY,
+			float maxY) {
+		graphics2D.setColor(getColor(ElementKind.BULLET));
+		SpatialGrid grid = snapshot.getBulletGrid();
+		int[] visible = painter.getVisible(grid.size());
+		int count = grid.query(camera.getMinX(), minY, camera.getMaxX(), maxY,
+				visible);
+		painter.begin(graphics2D, camera);
+		for (int i = 0; i < count; i++) {
+			snapshot.getElement(visible[i]).draw(painter, snapshot,
+					visible[i], alpha);
 		}
+		painter.end();
+	}
 
-		graphics2D.drawImage(image, AffineTransform.getScaleInstance(WIDTH
-				/ dimension.getWidth(), HEIGHT / dimension.getHeight()), null);
+	/**
+	 * Get the camera through which a context shows rounds, to move it.
+	 *
+	 * @param context
+	 *            owning the back buffer
+	 * @return camera of the context
+	 */
+	public static Camera getCamera(ApplicationContext context) {
+		return getLayers(context).getCamera();
+	}
+
+	/**
+	 * Show the overlay of the metrics on the frames of a context if it is
+	 * hidden, hide it otherwise.
+	 *
+	 * @param context
+	 *            owning the back buffer
+	 */
+	public static void toggleHud(ApplicationContext context) {
+		getLayers(context).toggleHud();
+	}
+
+	/**
+	 * Draw an image instead of the outline of the elements of a type, in the
+	 * rounds shown from now on. The image is stretched over the bounds of
+	 * the outline and turns with the elements.
+	 *
+	 * @param type
+	 *            of the elements, for instance Cat.class
+	 * @param skin
+	 *            image of the elements, null to draw their outline again
+	 */
+	public static void setSkin(Class<? extends GameElement> type,
+			BufferedImage skin) {
+		SpriteAtlas.setSkin(type, skin);
+	}
+
+	/**
+	 * Check if the next frame of a round would differ from the last one shown
+	 * into a context: if no element moved or changed state, the camera did
+	 * not move and the overlay is hidden, showing it again can be skipped.
+	 *
+	 * @param context
+	 *            owning the back buffer
+	 * @param round
+	 *            to show
+	 * @return True if the round must be shown again
+	 */
+	public static boolean hasChanged(ApplicationContext context, Round round) {
+		Layers layer = layers.get(context);
+		return layer == null
+				|| layer.hasChanged(round, round.getSnapshot(), round
+						.getClock().getAlpha());
+	}
+
+	/**
+	 * Get the layers of a context, creating them on its first frame.
+	 *
+	 * @param context
+	 *            owning the back buffer
+	 * @return layers of the context
+	 */
+	private static Layers getLayers(ApplicationContext context) {
+		return layers.computeIfAbsent(context, c -> new Layers(WIDTH, HEIGHT,
+				RENDER_THREADS));
+	}
+
+	/**
+	 * Show round into graphics2D, composing it first into the back buffer of
+	 * the context. The static part of the round is drawn once into a cached
+	 * layer, and drawn again only when {@link Round#getSceneVersion()}
+	 * changes; only the bullets are drawn on each frame, by several threads
+	 * if game.render.threads is greater than 1 (see {@link TiledRenderer}).
+	 * Everything is read from the last snapshot of the round. The duration
+	 * of the frame is
+	 * recorded into the metrics of the round, shown over the frame if the
+	 * overlay is toggled on, and as a {@link FlightEvents.Frame}.
+	 *
+	 * @param context
+	 *            owning the back buffer
+	 * @param graphics2D
+	 *            where to paint round
+	 * @param round
+	 *            actual Round to paint
+	 */
+	public static void update(ApplicationContext context,
+			Graphics2D graphics2D, Round round) {
+		FlightEvents.Frame event = new FlightEvents.Frame();
+		event.begin();
+		long start = System.nanoTime();
+		Layers layer = getLayers(context);
+		WorldSnapshot snapshot = round.getSnapshot();
+		float alpha = round.getClock().getAlpha();
+		layer.getCamera().fit(round.getWidth(), round.getHeight(), WIDTH,
+				HEIGHT);
+		BufferedImage scene = layer.getScene(round, snapshot,
+				graphics2D.getBackground());
+		BufferedImage buffer = layer.getBack();
+		TiledRenderer tiles = layer.getTiles();
+		if (tiles != null) {
+			tiles.render(buffer, scene, snapshot, layer.getCamera(), alpha,
+					layer.getAtlas());
+		}
+		Graphics2D graphics = buffer.createGraphics();
+		try {
+			if (tiles == null) {
+				graphics.drawImage(scene, 0, 0, null);
+				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+						RenderingHints.VALUE_ANTIALIAS_ON);
+				drawBullets(graphics, snapshot, layer.getPainter(),
+						layer.getCamera(), alpha);
+			}
+			if (layer.isHudShown()) {
+				layer.getHud().draw(graphics, round.getMetrics());
+			}
+		} finally {
+			graphics.dispose();
+		}
+		graphics2D.drawImage(buffer, 0, 0, null);
+		layer.setFrame(round, snapshot, alpha);
+		round.getMetrics().recordFrame(System.nanoTime() - start);
+		if (event.shouldCommit()) {
+			event.step = snapshot.getStep();
+			event.bullets = snapshot.getBulletGrid().size();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Draw a round into a new image of any size, for instance to export it
+	 * at a higher resolution than the panel. Reads the last snapshot of the
+	 * round, so it must be called by the thread showing the round, if any.
+	 *
+	 * @param round
+	 *            to draw
+	 * @param width
+	 *            of the image in pixels
+	 * @param height
+	 *            of the image in pixels
+	 * @param threads
+	 *            number of threads drawing the bullets
+	 * @return new image
+	 */
+	public static BufferedImage export(Round round, int width, int height,
+			int threads) {
+		WorldSnapshot snapshot = round.getSnapshot();
+		float alpha = round.getClock().getAlpha();
+		Camera camera = Camera.create();
+		camera.fit(round.getWidth(), round.getHeight(), width, height);
+		SpriteAtlas atlas = SpriteAtlas.create();
+		atlas.update(round, snapshot, camera);
+		TemplatePainter painter = new TemplatePainter();
+		painter.setAtlas(atlas);
+		BufferedImage scene = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = scene.createGraphics();
+		try {
+			graphics.setBackground(BACKGROUND_COLOR);
+			graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+					RenderingHints.VALUE_ANTIALIAS_ON);
+			drawScene(graphics, round, snapshot, painter, camera);
+		} finally {
+			graphics.dispose();
+		}
+		BufferedImage image = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_RGB);
+		if (threads > 1) {
+			TiledRenderer tiles = TiledRenderer.create(threads);
+			try {
+				tiles.render(image, scene, snapshot, camera, alpha, atlas);
+			} finally {
+				tiles.close();
+			}
+			return image;
+		}
+		graphics = image.createGraphics();
+		try {
+			graphics.drawImage(scene, 0, 0, null);
+			graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+					RenderingHints.VALUE_ANTIALIAS_ON);
+			drawBullets(graphics, snapshot, painter, camera, alpha);
+		} finally {
+			graphics.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Get the transformation from graphic coordinates of the elements (see
+	 * {@link #gameToGraphicX(float)} and {@link #gameToGraphicY(float)}) to
+	 * the pixels of the panel.
+	 *
+	 * @param round
+	 *            to show
+	 * @return new transformation
+	 */
+	public static AffineTransform worldToScreen(Round round) {
+		double scaleX = WIDTH / (double) (DEFINITION * round.getWidth());
+		double scaleY = HEIGHT / (double) (DEFINITION * round.getHeight());
+		AffineTransform transform = AffineTransform.getScaleInstance(scaleX,
+				scaleY);
+		transform.translate(0, DEFINITION * round.getHeight());
+		return transform;
 	}
 
 	/**
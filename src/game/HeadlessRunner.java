@@ -0,0 +1,56 @@
+package game;
+
+/**
+ * Run rounds without display nor wall-clock pacing: steps are calculated as
+ * fast as possible on the calling thread.
+ */
+public class HeadlessRunner {
+	/**
+	 * Number of steps after which a round is stopped by default
+	 */
+	public static final long DEFAULT_MAX_STEPS = 100_000;
+
+	private HeadlessRunner() {
+	}
+
+	/**
+	 * Run a round until its end, or until maxSteps steps.
+	 * 
+	 * @param round
+	 *            to run, not started
+	 * @param maxSteps
+	 *            maximum number of steps to calculate
+	 * @return report of the run
+	 */
+	public static RunReport run(Round round, long maxSteps) {
+		if (maxSteps <= 0) {
+			throw new IllegalArgumentException(
+					"Number of steps must be positive.");
+		}
+		round.setClock(SimulationClock.unpaced(round.getTimeStep()));
+		long contacts = round.getContactCount();
+		long start = System.nanoTime();
+		round.start(maxSteps);
+		long wallNanos = System.nanoTime() - start;
+		return new RunReport(round.getOutcome(), round.getStepCount(),
+				round.getContactCount() - contacts, wallNanos);
+	}
+
+	/**
+	 * Run the default round and print its report.
+	 * 
+	 * @param args
+	 *            [number of runs] [maximum number of steps]
+	 * @throws Exception
+	 *             if the round cannot be created
+	 */
+	public static void main(String[] args) throws Exception {
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+		long maxSteps = args.length > 1 ? Long.parseLong(args[1])
+				: DEFAULT_MAX_STEPS;
+		for (int i = 0; i < runs; i++) {
+			System.out.println("run " + i + ": "
+					+ run(Levels.createDefault(), maxSteps));
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in nanoseconds, with buckets whose width grows
+ * with the values: each power of two is split into 32 buckets, so a value
+ * is known within about 3% whatever its magnitude. Recording is one atomic
+ * increment, without allocation nor lock, and can be done by several
+ * threads at once.
+ *
+ * Values from 0 to about 68 seconds are recorded, larger ones are counted
+ * in the last bucket.
+ */
+public final class Histogram {
+	/**
+	 * Each power of two is split into 2^SUB_BITS buckets
+	 */
+	private static final int SUB_BITS = 5;
+	/**
+	 * Values are recorded up to 2^MAX_BITS excluded
+	 */
+	private static final int MAX_BITS = 36;
+	private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+	static final int BUCKETS = (MAX_BITS - SUB_BITS + 1) << SUB_BITS;
+
+	/**
+	 * Number of values recorded in each bucket
+	 */
+	private final AtomicLongArray counts;
+
+	private Histogram(AtomicLongArray counts) {
+		this.counts = counts;
+	}
+
+	/**
+	 * Create an empty histogram.
+	 *
+	 * @return new Histogram
+	 */
+	public static Histogram create() {
+		return new Histogram(new AtomicLongArray(BUCKETS));
+	}
+
+	/**
+	 * Get the bucket of a value. Values below 64 have a bucket each, then
+	 * each range [2^n;2^(n+1)[ is split into 32 buckets.
+	 *
+	 * @param value
+	 *            positive
+	 * @return index of the bucket
+	 */
+	static int getBucket(long value) {
+		long clamped = Math.max(0, Math.min(MAX_VALUE, value));
+		int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(clamped)
+				- (SUB_BITS + 1));
+		return (shift << SUB_BITS) + (int) (clamped >>> shift);
+	}
+
+	/**
+	 * Get the largest value counted in a bucket.
+	 *
+	 * @param bucket
+	 *            index of the bucket
+	 * @return highest value of the bucket
+	 */
+	static long getHighestValue(int bucket) {
+		int shift = Math.max(0, (bucket >> SUB_BITS) - 1);
+		long lowest = (long) (bucket - (shift << SUB_BITS)) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * Record a value.
+	 *
+	 * @param value
+	 *            in nanoseconds, negative values are counted as 0
+	 */
+	public void record(long value) {
+		counts.incrementAndGet(getBucket(value));
+	}
+
+	/**
+	 * Get the number of values recorded.
+	 *
+	 * @return number of values
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Get the value below which a percentage of the recorded values are.
+	 *
+	 * @param percentile
+	 *            from 0 to 100
+	 * @return highest value of the bucket reaching the percentile, 0 if the
+	 *         histogram is empty
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (!(percentile >= 0 && percentile <= 100)) {
+			throw new IllegalArgumentException(
+					"Percentile must be between 0 and 100.");
+		}
+		long count = getCount();
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return getHighestValue(i);
+			}
+		}
+		return getHighestValue(BUCKETS - 1);
+	}
+
+	/**
+	 * Get the largest value recorded.
+	 *
+	 * @return highest value of the last bucket not empty, 0 if the histogram
+	 *         is empty
+	 */
+	public long getMax() {
+		for (int i = BUCKETS - 1; i >= 0; i--) {
+			if (counts.get(i) != 0) {
+				return getHighestValue(i);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Copy the values recorded so far. Values recorded meanwhile may or may
+	 * not be in the copy.
+	 *
+	 * @return new Histogram
+	 */
+	public Histogram snapshot() {
+		AtomicLongArray copy = new AtomicLongArray(BUCKETS);
+		for (int i = 0; i < BUCKETS; i++) {
+			copy.set(i, counts.get(i));
+		}
+		return new Histogram(copy);
+	}
+
+	/**
+	 * Get the values recorded since a snapshot of this histogram.
+	 *
+	 * @param earlier
+	 *            snapshot of this histogram
+	 * @return new Histogram
+	 */
+	public Histogram since(Histogram earlier) {
+		AtomicLongArray difference = new AtomicLongArray(BUCKETS);
+		for (int i = 0; i < BUCKETS; i++) {
+			difference.set(i,
+					Math.max(0, counts.get(i) - earlier.counts.get(i)));
+		}
+		return new Histogram(difference);
+	}
+
+	/**
+	 * Forget all the values. Values recorded meanwhile may be kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package game;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overlay showing the metrics of the game over the last half second:
+ * frames per second, 99th percentiles of the durations of the frames and
+ * of the steps and of the jitter of the frames, contacts per step, bullets
+ * in play and dropped frames. The metrics are read and the texts built
+ * only twice per second, not on each frame.
+ */
+final class Hud {
+	/**
+	 * Time between two readings of the metrics
+	 */
+	private static final long PERIOD = TimeUnit.MILLISECONDS.toNanos(500);
+	private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+	private static final Color BACKGROUND = new Color(0, 0, 0, 160);
+	private static final int MARGIN = 6;
+
+	/**
+	 * Metrics read last
+	 */
+	private Metrics metrics;
+	/**
+	 * Time of the last reading
+	 */
+	private long sampled;
+	private long frames;
+	private long steps;
+	private long contacts;
+	private long dropped;
+	private Histogram frameTime;
+	private Histogram stepTime;
+	private Histogram frameJitter;
+	/**
+	 * Texts shown, built at the last reading
+	 */
+	private String[] lines = { "Measuring..." };
+
+	/**
+	 * Draw the overlay in the top left corner.
+	 *
+	 * @param graphics2D
+	 *            where to paint
+	 * @param metrics
+	 *            to show
+	 */
+	void draw(Graphics2D graphics2D, Metrics metrics) {
+		long now = System.nanoTime();
+		if (metrics != this.metrics) {
+			read(metrics, now);
+		} else if (now - sampled >= PERIOD) {
+			update(now);
+		}
+		graphics2D.setFont(FONT);
+		FontMetrics fontMetrics = graphics2D.getFontMetrics();
+		int width = 0;
+		for (String line : lines) {
+			width = Math.max(width, fontMetrics.stringWidth(line));
+		}
+		int lineHeight = fontMetrics.getHeight();
+		graphics2D.setColor(BACKGROUND);
+		graphics2D.fillRect(0, 0, width + 2 * MARGIN, lines.length
+				* lineHeight + 2 * MARGIN);
+		graphics2D.setColor(Color.WHITE);
+		for (int i = 0; i < lines.length; i++) {
+			graphics2D.drawString(lines[i], MARGIN, MARGIN + i * lineHeight
+					+ fontMetrics.getAscent());
+		}
+	}
+
+	/**
+	 * Start measuring other metrics.
+	 *
+	 * @param metrics
+	 *            to read
+	 * @param now
+	 *            time of the reading
+	 */
+	private void read(Metrics metrics, long now) {
+		this.metrics = metrics;
+		sampled = now;
+		frames = metrics.getFrames();
+		steps = metrics.getSteps();
+		contacts = metrics.getContacts();
+		dropped = metrics.getDroppedFrames();
+		frameTime = metrics.getFrameTime().snapshot();
+		stepTime = metrics.getStepTime().snapshot();
+		frameJitter = metrics.getFrameJitter().snapshot();
+	}
+
+	/**
+	 * Build the texts from what the metrics recorded since the last
+	 * reading.
+	 *
+	 * @param now
+	 *            time of the reading
+	 */
+	private void update(long now) {
+		double seconds = (now - sampled) / 1e9;
+		long newFrames = Math.max(0, metrics.getFrames() - frames);
+		long newSteps = Math.max(0, metrics.getSteps() - steps);
+		long newContacts = Math.max(0, metrics.getContacts() - contacts);
+		long newDropped = Math.max(0, metrics.getDroppedFrames() - dropped);
+		Histogram frameWindow = metrics.getFrameTime().since(frameTime);
+		Histogram stepWindow = metrics.getStepTime().since(stepTime);
+		Histogram jitterWindow = metrics.getFrameJitter().since(frameJitter);
+		lines = new String[] {
+				String.format("FPS         %6.1f", newFrames / seconds),
+				String.format("frame p99 %6.2f ms",
+						frameWindow.getValueAtPercentile(99) / 1e6),
+				String.format("step p99  %6.2f ms",
+						stepWindow.getValueAtPercentile(99) / 1e6),
+				String.format("jitter p99%6.2f ms",
+						jitterWindow.getValueAtPercentile(99) / 1e6),
+				String.format("contacts/step %4.2f", newSteps == 0 ? 0.0
+						: (double) newContacts / newSteps),
+				String.format("bullets       %4d", metrics.getActiveBullets()),
+				String.format("dropped       %4d", newDropped) };
+		read(metrics, now);
+	}
+}
@@ -0,0 +1,106 @@
+package game;
+
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Launches of bullets planned on steps of the simulation, shared by all the
+ * launchers of a round. Bullets are activated by the physics thread on the
+ * step where their fire time falls; launches planned on the same step keep
+ * the order in which they were scheduled.
+ */
+final class LaunchScheduler {
+	/**
+	 * Launch of one bullet
+	 */
+	private static final class Launch implements Comparable<Launch> {
+		private final long step;
+		private final long order;
+		private final Launcher launcher;
+		private final Bullet bullet;
+
+		private Launch(long step, long order, Launcher launcher, Bullet bullet) {
+			this.step = step;
+			this.order = order;
+			this.launcher = launcher;
+			this.bullet = bullet;
+		}
+
+		@Override
+		public int compareTo(Launch other) {
+			int compare = Long.compare(step, other.step);
+			return compare != 0 ? compare : Long.compare(order, other.order);
+		}
+	}
+
+	private final PriorityQueue<Launch> pending = new PriorityQueue<>();
+	/**
+	 * Number of launches scheduled so far
+	 */
+	private long scheduled = 0;
+
+	/**
+	 * Plan the launch of the bullets of a launcher, one every interval steps.
+	 * 
+	 * @param launcher
+	 *            launching the bullets
+	 * @param bullets
+	 *            to launch, in order
+	 * @param firstStep
+	 *            step of the first launch
+	 * @param interval
+	 *            number of steps between two launches
+	 */
+	void schedule(Launcher launcher, Iterable<Bullet> bullets, long firstStep,
+			long interval) {
+		if (interval < 0) {
+			throw new IllegalArgumentException(
+					"Interval must not be negative.");
+		}
+		long step = firstStep;
+		for (Bullet bullet : bullets) {
+			pending.add(new Launch(step, scheduled++, launcher, bullet));
+			step += interval;
+		}
+	}
+
+	/**
+	 * Activate the bullets whose launch is planned until step, unless their
+	 * launcher has been stopped.
+	 * 
+	 * @param step
+	 *            current step
+	 * @param launched
+	 *            called with each bullet activated
+	 * @return number of bullets activated
+	 */
+	int fire(long step, Consumer<Bullet> launched) {
+		int fired = 0;
+		Launch launch;
+		while ((launch = pending.peek()) != null && launch.step <= step) {
+			pending.poll();
+			if (!launch.launcher.isStopped()) {
+				launch.bullet.start();
+				launched.accept(launch.bullet);
+				fired++;
+			}
+		}
+		return fired;
+	}
+
+	/**
+	 * Get the number of launches not done yet.
+	 * 
+	 * @return number of pending launches
+	 */
+	int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * Cancel all the pending launches.
+	 */
+	void clear() {
+		pending.clear();
+	}
+}
@@ -1,17 +1,16 @@
 package game;
 
 import java.awt.Point;
-import java.awt.Rectangle;
 import java.awt.Shape;
-import java.awt.geom.Area;
 import java.awt.geom.Ellipse2D;
-import java.lang.reflect.InvocationTargetException;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.function.Function;
 
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
@@ -20,6 +19,28 @@ import org.jbox2d.dynamics.BodyType;
 import org.jbox2d.dynamics.World;
 
 public class Launcher extends GameElement {
+	/**
+	 * Radius of the launchers, in game units
+	 */
+	private static final float RADIUS = .2f;
+	/**
+	 * Outline of the canon
+	 */
+	private static final Shape CANON = new Rectangle2D.Float(0, -.075f, .35f,
+			.15f);
+	/**
+	 * Outline of the body and the foot of the launcher, which never turn
+	 */
+	private static final Shape BASE;
+
+	static {
+		Path2D.Float base = new Path2D.Float(Path2D.WIND_NON_ZERO);
+		base.append(new Ellipse2D.Float(-RADIUS, -RADIUS, RADIUS * 2,
+				RADIUS * 2), false);
+		base.append(new Rectangle2D.Float(-RADIUS * 3 / 4, -RADIUS,
+				RADIUS * 3 / 2, RADIUS), false);
+		BASE = base;
+	}
 	/**
 	 * Number of millisecond between two bullet
 	 */
@@ -32,10 +53,14 @@ public class Launcher extends GameElement {
 	 * List of bullets which will be launched
 	 */
 	private final ConcurrentLinkedQueue<Bullet> bullets = new ConcurrentLinkedQueue<>();
+	/**
+	 * Number of bullets to launch
+	 */
+	private final int nbCat;
 	/**
 	 * True if launcher stopped
 	 */
-	private boolean stop = false;
+	private volatile boolean stop = false;
 	/**
 	 * Used for generating random angle for launched bullets.
 	 */
@@ -50,6 +75,7 @@ public class Launcher extends GameElement {
 		Objects.requireNonNull(position);
 		Objects.requireNonNull(orientation);
 		this.orientation = new Vec2(orientation.x, orientation.y);
+		this.nbCat = nbCat;
 	}
 
 	/**
@@ -98,57 +124,110 @@ public class Launcher extends GameElement {
 	}
 
 	/**
-	 * Stop launcher's launch
+	 * Seed the generator of the angles given to the next bullets added.
+	 * 
+	 * @param seed
+	 *            of the generator
+	 */
+	public void setSeed(long seed) {
+		randomAngle.setSeed(seed);
+	}
+
+	/**
+	 * Stop launcher's launch: bullets not launched yet stay inactive.
 	 */
 	public void stopLaunch() {
 		stop = true;
 	}
 
+	/**
+	 * Check if the launcher has been stopped
+	 * 
+	 * @return True if stopped
+	 */
+	public boolean isStopped() {
+		return stop;
+	}
+
+	/**
+	 * Get the time between the launches of two bullets, in simulation time.
+	 * 
+	 * @return number of millisecond between two bullets
+	 */
+	public long getWaitTime() {
+		return waitTime;
+	}
+
 	/**
 	 * Add a bullet to the canon.
 	 * 
-	 * @param Class
+	 * @param classValue
 	 *            of the new bullet
 	 * @return True in case of success.
-	 * @throws SecurityException
 	 * @throws NoSuchMethodException
-	 *             if callValue does not have static create method
-	 * @throws InvocationTargetException
-	 * @throws IllegalArgumentException
+	 *             if classValue is not registered and does not have a static
+	 *             create method
 	 * @throws IllegalAccessException
+	 *             if its create method is not public
 	 */
 	public boolean addBullet(Class<? extends Bullet> classValue)
-			throws IllegalAccessException, IllegalArgumentException,
-			InvocationTargetException, NoSuchMethodException, SecurityException {
-		return bullets.add((Bullet) Bullet.getConstructor(classValue).invoke(
-				null, getWorld(), getPosition(), orientation,
-				randomAngle.nextFloat()));
+			throws NoSuchMethodException, IllegalAccessException {
+		return addBullet(BulletFactories.get(classValue));
 	}
 
 	/**
-	 * Make the launcher launch its bullets
+	 * Add a bullet to the canon.
 	 * 
-	 * @return Set of bullets which will be launched
+	 * @param factory
+	 *            creating the new bullet
+	 * @return True in case of success.
+	 */
+	public boolean addBullet(BulletFactory factory) {
+		Objects.requireNonNull(factory);
+		return bullets.add(factory.create(getWorld(), getPosition(),
+				orientation, randomAngle.nextFloat()));
+	}
+
+	/**
+	 * Add several bullets of the same type to the canon.
+	 * 
+	 * @param factory
+	 *            creating the new bullets
+	 * @param count
+	 *            number of bullets to add
+	 * @return True in case of success.
+	 */
+	public boolean addBullets(BulletFactory factory, int count) {
+		Objects.requireNonNull(factory);
+		if (count < 0) {
+			throw new IllegalArgumentException(
+					"Le nombre de chat doit etre positif.");
+		}
+		ArrayList<Bullet> added = new ArrayList<>(count);
+		World world = getWorld();
+		Vec2 position = getPosition();
+		for (int i = 0; i < count; i++) {
+			added.add(factory.create(world, position, orientation,
+					randomAngle.nextFloat()));
+		}
+		return bullets.addAll(added);
+	}
+
+	/**
+	 * Make the launcher launch its bullets. If less bullets than the number
+	 * given at creation were added, the canon is completed with cats.
+	 * Bullets are not activated here: the round activates them one after the
+	 * other, every {@link #getWaitTime()} millisecond of simulation.
+	 * 
+	 * @return Set of bullets which will be launched, in launch order
 	 */
 	public Set<Bullet> launch() {
+		for (int i = bullets.size(); i < nbCat; i++) {
+			addBullet(Cat::create);
+		}
 		final LinkedHashSet<Bullet> set = new LinkedHashSet<>();
 		set.addAll(bullets);
 		bullets.removeAll(set);
-
-		new Thread(() -> {
-			for(Bullet bullet: set) {
-				if (stop) {
-					return;
-				}
-				bullet.start();
-				try {
-					Thread.sleep(waitTime);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-			}
-		}).start();
-
 		return set;
 	}
 
@@ -158,31 +237,40 @@ public class Launcher extends GameElement {
 	 * @return radius of the element.
 	 */
 	public float getRadius() {
-		return .2f;
+		return RADIUS;
 	}
 
 	@Override
-	public Shape getGraphicShape() {
-		Point position = getGraphicPosition();
-		int height = Math.abs(Graphics.gameToGraphicY(.15f));
-		int width = Math.abs(Graphics.gameToGraphicX(.35f));
-
-		Area area = new Area(transformShape(new Rectangle(position.x,
-				position.y - height / 2, width, height)));
+	public ElementKind getKind() {
+		return ElementKind.LAUNCHER;
+	}
 
-		int radiusX = Math.abs(Graphics.gameToGraphicX(getRadius()));
-		int radiusY = Math.abs(Graphics.gameToGraphicY(getRadius()));
-		area.add(new Area(new Ellipse2D.Float(position.x - radiusX, position.y
-				- radiusY, radiusX * 2, radiusY * 2)));
+	/**
+	 * Get the outline of the canon, which turns with the launcher.
+	 */
+	@Override
+	protected Shape getTemplate() {
+		return CANON;
+	}
 
-		radiusX *= 3f / 4;
-		radiusY -= 1;
-		area.add(new Area(new Rectangle(position.x - radiusX, position.y + 1,
-				radiusX * 2, radiusY)));
-		return area;
+	@Override
+	public Shape getGraphicShape(Point position, float angle) {
+		Path2D.Float shape = new Path2D.Float(Path2D.WIND_NON_ZERO);
+		shape.append(placeTemplate(CANON, position, angle), false);
+		shape.append(placeTemplate(BASE, position, 0), false);
+		return shape;
 	}
 
-	public void addBullet(Function<?, Bullet> bullet) {
+	@Override
+	float getBoundingRadius() {
+		return Math.max(super.getBoundingRadius(), getBoundingRadius(BASE));
+	}
 
+	@Override
+	void draw(TemplatePainter painter, WorldSnapshot snapshot, int index,
+			float alpha) {
+		super.draw(painter, snapshot, index, alpha);
+		float[] screen = painter.getScreen();
+		painter.fill(getClass(), BASE, screen[0], screen[1], 0);
 	}
 }
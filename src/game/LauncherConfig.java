@@ -0,0 +1,115 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.World;
+
+/**
+ * Description of a launcher of a {@link RoundConfig}: its position, the
+ * orientation of its canon and the bullets it launches.
+ */
+public final class LauncherConfig {
+	private final Vec2 position;
+	private final Vec2 orientation;
+	private final List<Class<? extends Bullet>> bullets;
+
+	private LauncherConfig(Vec2 position, Vec2 orientation,
+			List<Class<? extends Bullet>> bullets) {
+		if (bullets.isEmpty()) {
+			throw new IllegalArgumentException(
+					"Le nombre de chat doit etre positif.");
+		}
+		this.position = new Vec2(position);
+		this.orientation = new Vec2(orientation);
+		ArrayList<Class<? extends Bullet>> copy = new ArrayList<>();
+		for (Class<? extends Bullet> bullet : bullets) {
+			copy.add(Objects.requireNonNull(bullet));
+		}
+		this.bullets = Collections.unmodifiableList(copy);
+	}
+
+	/**
+	 * Create the description of a launcher.
+	 *
+	 * @param position
+	 *            of the launcher
+	 * @param orientation
+	 *            of the canon
+	 * @param bullets
+	 *            classes of the bullets to launch, in order
+	 * @return new LauncherConfig
+	 */
+	public static LauncherConfig create(Vec2 position, Vec2 orientation,
+			List<Class<? extends Bullet>> bullets) {
+		return new LauncherConfig(Objects.requireNonNull(position),
+				Objects.requireNonNull(orientation),
+				Objects.requireNonNull(bullets));
+	}
+
+	/**
+	 * Get the same launcher with another orientation of the canon.
+	 *
+	 * @param orientation
+	 *            of the canon
+	 * @return new LauncherConfig
+	 */
+	public LauncherConfig withOrientation(Vec2 orientation) {
+		return new LauncherConfig(position,
+				Objects.requireNonNull(orientation), bullets);
+	}
+
+	/**
+	 * Get the position of the launcher.
+	 *
+	 * @return copy of the position
+	 */
+	public Vec2 getPosition() {
+		return new Vec2(position);
+	}
+
+	/**
+	 * Get the orientation of the canon.
+	 *
+	 * @return copy of the orientation
+	 */
+	public Vec2 getOrientation() {
+		return new Vec2(orientation);
+	}
+
+	/**
+	 * Get the classes of the bullets, in launch order.
+	 *
+	 * @return unmodifiable list of classes
+	 */
+	public List<Class<? extends Bullet>> getBullets() {
+		return bullets;
+	}
+
+	/**
+	 * Create the launcher in a world.
+	 *
+	 * @param world
+	 *            of the round
+	 * @param seed
+	 *            of the angles given to the bullets
+	 * @return new Launcher, loaded with its bullets
+	 * @throws NoSuchMethodException
+	 *             if a class of bullet has no create method
+	 * @throws IllegalAccessException
+	 *             if a create method cannot be called
+	 */
+	Launcher createLauncher(World world, long seed)
+			throws NoSuchMethodException, IllegalAccessException {
+		Launcher launcher = Launcher.create(world, position, bullets.size(),
+				orientation);
+		launcher.setSeed(seed);
+		for (Class<? extends Bullet> bullet : bullets) {
+			launcher.addBullet(BulletFactories.get(bullet));
+		}
+		return launcher;
+	}
+}
@@ -0,0 +1,243 @@
+package game;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
+
+/**
+ * Images used to render a round into a context: the static scene, drawn
+ * again only when the round says it changed, and the back buffer where the
+ * scene and the moving elements are composed on each frame.
+ */
+final class Layers {
+	/**
+	 * Image where each frame is composed
+	 */
+	private final BufferedImage back;
+	/**
+	 * Cached image of the static part of the round
+	 */
+	private final BufferedImage scene;
+	/**
+	 * Fills the elements into the layers
+	 */
+	private final TemplatePainter painter = new TemplatePainter();
+	/**
+	 * Templates of the elements of the round, filled at the scale of the
+	 * camera
+	 */
+	private final SpriteAtlas atlas = SpriteAtlas.create();
+	/**
+	 * Camera of the frames of the context
+	 */
+	private final Camera camera = Camera.create();
+	/**
+	 * Composes the frames with several threads, null if they are composed
+	 * by the thread showing them
+	 */
+	private final TiledRenderer tiles;
+	/**
+	 * Overlay of the metrics
+	 */
+	private final Hud hud = new Hud();
+	/**
+	 * True if the overlay is drawn on the frames
+	 */
+	private volatile boolean hudShown;
+	/**
+	 * Round drawn into the scene
+	 */
+	private Round sceneRound;
+	/**
+	 * Version of the round drawn into the scene
+	 */
+	private int sceneVersion;
+	/**
+	 * Version of the camera used to draw the scene
+	 */
+	private int cameraVersion;
+	/**
+	 * Round of the last frame composed into the back buffer
+	 */
+	private Round frameRound;
+	/**
+	 * Version of the snapshot of the last frame
+	 */
+	private int frameVersion;
+	/**
+	 * Interpolation factor of the last frame, 1 if nothing was moving
+	 */
+	private float frameAlpha;
+	/**
+	 * Version of the camera of the last frame
+	 */
+	private int frameCamera;
+
+	Layers(int width, int height, int threads) {
+		back = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		scene = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		tiles = threads > 1 ? TiledRenderer.create(threads) : null;
+		painter.setAtlas(atlas);
+	}
+
+	/**
+	 * Get the back buffer.
+	 *
+	 * @return image where frames are composed
+	 */
+	BufferedImage getBack() {
+		return back;
+	}
+
+	/**
+	 * Get the painter of the elements, reused from one frame to the next.
+	 *
+	 * @return painter of the templates
+	 */
+	TemplatePainter getPainter() {
+		return painter;
+	}
+
+	/**
+	 * Get the atlas of the templates, filled by
+	 * {@link #getScene(Round, WorldSnapshot, Color)}.
+	 *
+	 * @return atlas of the context
+	 */
+	SpriteAtlas getAtlas() {
+		return atlas;
+	}
+
+	/**
+	 * Get the camera of the frames, shared by the scene and the bullets.
+	 * 
+	 * @return camera of the context
+	 */
+	Camera getCamera() {
+		return camera;
+	}
+
+	/**
+	 * Get the renderer composing the frames with several threads.
+	 *
+	 * @return tiled renderer, null if frames are composed by one thread
+	 */
+	TiledRenderer getTiles() {
+		return tiles;
+	}
+
+	/**
+	 * Get the overlay of the metrics.
+	 *
+	 * @return overlay of the context
+	 */
+	Hud getHud() {
+		return hud;
+	}
+
+	/**
+	 * Check if the overlay of the metrics is drawn on the frames.
+	 *
+	 * @return True if shown
+	 */
+	boolean isHudShown() {
+		return hudShown;
+	}
+
+	/**
+	 * Show the overlay of the metrics if it is hidden, hide it otherwise.
+	 */
+	void toggleHud() {
+		hudShown = !hudShown;
+	}
+
+	/**
+	 * Check if a frame would differ from the last one composed into the back
+	 * buffer. A frame is the same if it shows the same version of the same
+	 * round through the same camera, interpolated with the same factor when
+	 * elements are moving. Frames showing the overlay always differ.
+	 *
+	 * @param round
+	 *            to draw
+	 * @param snapshot
+	 *            of the round
+	 * @param alpha
+	 *            interpolation factor of the frame
+	 * @return True if the frame must be drawn
+	 */
+	boolean hasChanged(Round round, WorldSnapshot snapshot, float alpha) {
+		return hudShown || round != frameRound
+				|| snapshot.getVersion() != frameVersion
+				|| camera.getVersion() != frameCamera
+				|| getAlpha(snapshot, alpha) != frameAlpha;
+	}
+
+	/**
+	 * Remember what the last frame composed into the back buffer shows.
+	 *
+	 * @param round
+	 *            drawn
+	 * @param snapshot
+	 *            of the round drawn
+	 * @param alpha
+	 *            interpolation factor of the frame
+	 */
+	void setFrame(Round round, WorldSnapshot snapshot, float alpha) {
+		frameRound = round;
+		frameVersion = snapshot.getVersion();
+		frameCamera = camera.getVersion();
+		frameAlpha = getAlpha(snapshot, alpha);
+	}
+
+	/**
+	 * Get the interpolation factor which matters for a snapshot: any factor
+	 * gives the same frame if nothing is moving.
+	 *
+	 * @param snapshot
+	 *            drawn
+	 * @param alpha
+	 *            interpolation factor of the frame
+	 * @return alpha if elements are moving, 1 otherwise
+	 */
+	private static float getAlpha(WorldSnapshot snapshot, float alpha) {
+		return snapshot.isMoving() ? alpha : 1;
+	}
+
+	/**
+	 * Get the static scene of the round, drawing it again if the snapshot
+	 * has a new version of it or if the camera moved. The atlas of the
+	 * templates is filled again first if the round or the scale changed.
+	 *
+	 * @param round
+	 *            to draw
+	 * @param snapshot
+	 *            of the round
+	 * @param background
+	 *            color of the scene
+	 * @return image of the static part of the round
+	 */
+	BufferedImage getScene(Round round, WorldSnapshot snapshot,
+			Color background) {
+		Objects.requireNonNull(round);
+		int version = snapshot.getSceneVersion();
+		boolean filled = atlas.update(round, snapshot, camera);
+		if (filled || round != sceneRound || version != sceneVersion
+				|| camera.getVersion() != cameraVersion) {
+			Graphics2D graphics = scene.createGraphics();
+			try {
+				graphics.setBackground(background);
+				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+						RenderingHints.VALUE_ANTIALIAS_ON);
+				Graphics.drawScene(graphics, round, snapshot, painter, camera);
+			} finally {
+				graphics.dispose();
+			}
+			sceneRound = round;
+			sceneVersion = version;
+			cameraVersion = camera.getVersion();
+		}
+		return scene;
+	}
+}
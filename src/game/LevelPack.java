@@ -0,0 +1,238 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pack of levels in the text format of {@link Levels}. The file starts with
+ * {@link #MAGIC}, {@link #VERSION} and the number of levels, followed by the
+ * offset of each level in the file and the offset of its end, then by the
+ * UTF-8 text of the levels.
+ *
+ * The pack is mapped in memory and only its header is read when it is
+ * opened: a level is parsed the first time it is asked for, then kept in a
+ * small cache of the levels last played.
+ */
+public final class LevelPack {
+	static final int MAGIC = 0x53544b4c;
+	static final int VERSION = 1;
+	private static final int HEADER_SIZE = 12;
+	/**
+	 * Number of parsed levels kept by default
+	 */
+	private static final int CACHE_SIZE = 16;
+
+	private final MappedByteBuffer buffer;
+	private final int size;
+	/**
+	 * Parsed levels, the least recently used first
+	 */
+	private final LinkedHashMap<Integer, RoundConfig> cache;
+
+	private LevelPack(MappedByteBuffer buffer, int cacheSize)
+			throws IOException {
+		this.buffer = buffer;
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a level pack.");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException("Unknown version of level pack.");
+		}
+		size = buffer.getInt(8);
+		if (size < 0
+				|| buffer.limit() < HEADER_SIZE + (size + 1L) * 8
+				|| buffer.getLong(HEADER_SIZE + size * 8) != buffer.limit()) {
+			throw new IOException("Truncated level pack.");
+		}
+		cache = new LinkedHashMap<Integer, RoundConfig>(cacheSize, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Integer, RoundConfig> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * Open a level pack.
+	 *
+	 * @param path
+	 *            of the file
+	 * @return new LevelPack
+	 * @throws IOException
+	 *             if the file cannot be read or is not a level pack
+	 */
+	public static LevelPack open(String path) throws IOException {
+		return open(path, CACHE_SIZE);
+	}
+
+	/**
+	 * Open a level pack.
+	 *
+	 * @param path
+	 *            of the file
+	 * @param cacheSize
+	 *            number of parsed levels kept
+	 * @return new LevelPack
+	 * @throws IOException
+	 *             if the file cannot be read or is not a level pack
+	 */
+	public static LevelPack open(String path, int cacheSize)
+			throws IOException {
+		if (cacheSize <= 0) {
+			throw new IllegalArgumentException(
+					"Cache size must be positive.");
+		}
+		try (FileChannel channel = FileChannel.open(
+				Paths.get(Objects.requireNonNull(path)),
+				StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Level pack too large.");
+			}
+			return new LevelPack(channel.map(FileChannel.MapMode.READ_ONLY,
+					0, channel.size()), cacheSize);
+		}
+	}
+
+	/**
+	 * Get the number of levels.
+	 *
+	 * @return number of levels
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get a level, parsing it only if it is not in the cache.
+	 *
+	 * @param level
+	 *            index of the level, from 0 to {@link #size()} excluded
+	 * @return configuration of the level, with seed 0
+	 * @throws IOException
+	 *             if the level is malformed
+	 */
+	public RoundConfig getConfig(int level) throws IOException {
+		if (level < 0 || level >= size) {
+			throw new IndexOutOfBoundsException("No level " + level);
+		}
+		synchronized (cache) {
+			RoundConfig config = cache.get(level);
+			if (config != null) {
+				return config;
+			}
+		}
+		RoundConfig config;
+		try {
+			config = Levels.parse(StandardCharsets.UTF_8.decode(getText(level)));
+		} catch (IOException e) {
+			throw new IOException("Level " + level + ": " + e.getMessage(), e);
+		}
+		synchronized (cache) {
+			cache.put(level, config);
+		}
+		return config;
+	}
+
+	/**
+	 * Get the bytes of the text of a level.
+	 *
+	 * @param level
+	 *            index of the level
+	 * @return new buffer on the mapped text
+	 * @throws IOException
+	 *             if the offsets of the level are wrong
+	 */
+	private ByteBuffer getText(int level) throws IOException {
+		long start = buffer.getLong(HEADER_SIZE + level * 8);
+		long end = buffer.getLong(HEADER_SIZE + (level + 1) * 8);
+		if (start < HEADER_SIZE + (size + 1L) * 8 || end < start
+				|| end > buffer.limit()) {
+			throw new IOException("Wrong offsets of level " + level);
+		}
+		ByteBuffer text = buffer.duplicate();
+		text.limit((int) end).position((int) start);
+		return text;
+	}
+
+	/**
+	 * Write a level pack.
+	 *
+	 * @param path
+	 *            of the file
+	 * @param levels
+	 *            texts of the levels, in order
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static void write(String path, List<? extends CharSequence> levels)
+			throws IOException {
+		ArrayList<ByteBuffer> texts = new ArrayList<>();
+		for (CharSequence level : levels) {
+			texts.add(StandardCharsets.UTF_8.encode(level.toString()));
+		}
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE
+				+ (texts.size() + 1) * 8);
+		header.putInt(MAGIC).putInt(VERSION).putInt(texts.size());
+		long offset = header.capacity();
+		for (ByteBuffer text : texts) {
+			header.putLong(offset);
+			offset += text.remaining();
+		}
+		header.putLong(offset).flip();
+		try (FileChannel channel = FileChannel.open(
+				Paths.get(Objects.requireNonNull(path)),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+			for (ByteBuffer text : texts) {
+				while (text.hasRemaining()) {
+					channel.write(text);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Build a level pack from level files, checking that each one parses.
+	 *
+	 * @param args
+	 *            path of the pack, then paths of the levels in order
+	 * @throws IOException
+	 *             if a file cannot be read or written, or is not a level
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: LevelPack <pack> <level>...");
+			return;
+		}
+		ArrayList<String> levels = new ArrayList<>();
+		for (int i = 1; i < args.length; i++) {
+			String text = new String(Files.readAllBytes(Paths.get(args[i])),
+					StandardCharsets.UTF_8);
+			try {
+				Levels.parse(text);
+			} catch (IOException e) {
+				throw new IOException(args[i] + ": " + e.getMessage(), e);
+			}
+			levels.add(text);
+		}
+		write(args[0], levels);
+		System.out.println(levels.size() + " levels written to " + args[0]);
+	}
+}
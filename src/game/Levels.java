@@ -0,0 +1,298 @@
+package game;
+
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.jbox2d.common.Vec2;
+
+/**
+ * Levels of the game, and their text format. A level holds one directive
+ * per line, blank lines and lines starting with # being ignored:
+ * 
+ * <pre>
+ * size &lt;width&gt; &lt;height&gt;
+ * wall &lt;x&gt; &lt;y&gt; &lt;width&gt; &lt;height&gt;
+ * launcher &lt;x&gt; &lt;y&gt; &lt;orientation x&gt; &lt;orientation y&gt; &lt;bullet&gt;[*count]...
+ * goal &lt;x&gt; &lt;y&gt;
+ * </pre>
+ * 
+ * Walls are given from their bottom left corner. Bullets are named by their
+ * class, without package if it is game. size and at least one launcher are
+ * required.
+ */
+public class Levels {
+	private static final Pattern SPACES = Pattern.compile("\\s+");
+	private static final String PACKAGE = "game.";
+
+	private Levels() {
+	}
+
+	/**
+	 * Get the configuration of the default round: a 5x5 area with one
+	 * launcher and two goals.
+	 * 
+	 * @param seed
+	 *            of the angles given to the bullets
+	 * @return configuration of the default round
+	 */
+	public static RoundConfig getDefaultConfig(long seed) {
+		return RoundConfig.create(5f, 5f, new Vec2(3, 2), new Vec2(-0.5f,
+				-0.5f), Collections.singletonList(Cat.class), Arrays.asList(
+				new Vec2(3, 3), new Vec2(2, 3)), seed);
+	}
+
+	/**
+	 * Create the default round with a random seed.
+	 * 
+	 * @return new Round
+	 * @throws NoSuchMethodException
+	 *             if a class of bullet has no create method
+	 * @throws IllegalAccessException
+	 *             if a create method cannot be called
+	 */
+	public static Round createDefault() throws NoSuchMethodException,
+			IllegalAccessException {
+		return createDefault(new Random().nextLong());
+	}
+
+	/**
+	 * Create the default round.
+	 * 
+	 * @param seed
+	 *            of the angles given to the bullets
+	 * @return new Round
+	 * @throws NoSuchMethodException
+	 *             if a class of bullet has no create method
+	 * @throws IllegalAccessException
+	 *             if a create method cannot be called
+	 */
+	public static Round createDefault(long seed)
+			throws NoSuchMethodException, IllegalAccessException {
+		return getDefaultConfig(seed).createRound();
+	}
+
+	/**
+	 * Read a level from a text file.
+	 * 
+	 * @param path
+	 *            of the file
+	 * @return configuration of the level, with seed 0
+	 * @throws IOException
+	 *             if the file cannot be read or is not a level
+	 */
+	public static RoundConfig read(String path) throws IOException {
+		return parse(new String(Files.readAllBytes(Paths.get(Objects
+				.requireNonNull(path))), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Parse a level.
+	 * 
+	 * @param text
+	 *            of the level
+	 * @return configuration of the level, with seed 0
+	 * @throws IOException
+	 *             if the text is not a level
+	 */
+	public static RoundConfig parse(CharSequence text) throws IOException {
+		float width = 0;
+		float height = 0;
+		ArrayList<LauncherConfig> launchers = new ArrayList<>();
+		ArrayList<Rectangle2D.Float> walls = new ArrayList<>();
+		ArrayList<Vec2> goals = new ArrayList<>();
+		int lineNumber = 0;
+		int start = 0;
+		int length = text.length();
+		while (start < length) {
+			int end = start;
+			while (end < length && text.charAt(end) != '\n') {
+				end++;
+			}
+			lineNumber++;
+			String line = text.subSequence(start, end).toString().trim();
+			start = end + 1;
+			if (line.isEmpty() || line.charAt(0) == '#') {
+				continue;
+			}
+			String[] words = SPACES.split(line);
+			try {
+				switch (words[0]) {
+				case "size":
+					checkCount(words, 3);
+					width = parseFloat(words[1]);
+					height = parseFloat(words[2]);
+					break;
+				case "wall":
+					checkCount(words, 5);
+					walls.add(new Rectangle2D.Float(parseFloat(words[1]),
+							parseFloat(words[2]), parseFloat(words[3]),
+							parseFloat(words[4])));
+					break;
+				case "launcher":
+					if (words.length < 6) {
+						throw new IllegalArgumentException(
+								"launcher needs a position, an orientation and bullets");
+					}
+					launchers.add(LauncherConfig.create(
+							new Vec2(parseFloat(words[1]), parseFloat(words[2])),
+							new Vec2(parseFloat(words[3]), parseFloat(words[4])),
+							parseBullets(words)));
+					break;
+				case "goal":
+					checkCount(words, 3);
+					goals.add(new Vec2(parseFloat(words[1]),
+							parseFloat(words[2])));
+					break;
+				default:
+					throw new IllegalArgumentException("unknown directive "
+							+ words[0]);
+				}
+			} catch (IllegalArgumentException | IOException e) {
+				throw new IOException("Line " + lineNumber + ": "
+						+ e.getMessage(), e);
+			}
+		}
+		try {
+			return RoundConfig.create(width, height, launchers, walls, goals, 0);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Parse a number of a directive.
+	 * 
+	 * @param word
+	 *            holding the number
+	 * @return finite number
+	 * @throws IllegalArgumentException
+	 *             if word is not a finite number
+	 */
+	private static float parseFloat(String word) {
+		float value = Float.parseFloat(word);
+		if (!Float.isFinite(value)) {
+			throw new IllegalArgumentException("not a finite number " + word);
+		}
+		return value;
+	}
+
+	private static void checkCount(String[] words, int count) {
+		if (words.length != count) {
+			throw new IllegalArgumentException(words[0] + " needs "
+					+ (count - 1) + " values");
+		}
+	}
+
+	/**
+	 * Parse the bullets of a launcher directive, from its sixth word.
+	 * 
+	 * @param words
+	 *            of the directive
+	 * @return classes of the bullets, in order
+	 * @throws IOException
+	 *             if a class of bullet is unknown
+	 */
+	private static List<Class<? extends Bullet>> parseBullets(String[] words)
+			throws IOException {
+		ArrayList<Class<? extends Bullet>> bullets = new ArrayList<>();
+		for (int i = 5; i < words.length; i++) {
+			String word = words[i];
+			int star = word.indexOf('*');
+			int count = 1;
+			if (star >= 0) {
+				count = Integer.parseInt(word.substring(star + 1));
+				if (count <= 0) {
+					throw new IllegalArgumentException(
+							"Le nombre de chat doit etre positif.");
+				}
+				word = word.substring(0, star);
+			}
+			Class<? extends Bullet> bullet = getBulletClass(word);
+			for (int j = 0; j < count; j++) {
+				bullets.add(bullet);
+			}
+		}
+		return bullets;
+	}
+
+	/**
+	 * Get a class of bullet from its name.
+	 * 
+	 * @param name
+	 *            of the class, without package if it is game
+	 * @return class of bullet
+	 * @throws IOException
+	 *             if there is no such class of bullet
+	 */
+	static Class<? extends Bullet> getBulletClass(String name)
+			throws IOException {
+		String className = name.indexOf('.') < 0 ? PACKAGE + name : name;
+		try {
+			// Not initialized unless it is a class of bullet
+			return Class.forName(className, false, Levels.class.getClassLoader())
+					.asSubclass(Bullet.class);
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException("Unknown bullet " + name, e);
+		}
+	}
+
+	/**
+	 * Write a configuration in the text format of the levels. The seed is
+	 * not written.
+	 * 
+	 * @param config
+	 *            to write
+	 * @return text of the level
+	 */
+	public static String format(RoundConfig config) {
+		StringBuilder builder = new StringBuilder();
+		builder.append("size ").append(config.getWidth()).append(' ')
+				.append(config.getHeight()).append('\n');
+		for (Rectangle2D.Float wall : config.getWalls()) {
+			builder.append("wall ").append(wall.x).append(' ').append(wall.y)
+					.append(' ').append(wall.width).append(' ')
+					.append(wall.height).append('\n');
+		}
+		for (LauncherConfig launcher : config.getLaunchers()) {
+			Vec2 position = launcher.getPosition();
+			Vec2 orientation = launcher.getOrientation();
+			builder.append("launcher ").append(position.x).append(' ')
+					.append(position.y).append(' ').append(orientation.x)
+					.append(' ').append(orientation.y);
+			List<Class<? extends Bullet>> bullets = launcher.getBullets();
+			for (int i = 0; i < bullets.size();) {
+				Class<? extends Bullet> bullet = bullets.get(i);
+				int count = 1;
+				while (i + count < bullets.size()
+						&& bullets.get(i + count) == bullet) {
+					count++;
+				}
+				String name = bullet.getName();
+				builder.append(' ').append(
+						name.startsWith(PACKAGE)
+								&& name.indexOf('.', PACKAGE.length()) < 0 ? name
+								.substring(PACKAGE.length()) : name);
+				if (count > 1) {
+					builder.append('*').append(count);
+				}
+				i += count;
+			}
+			builder.append('\n');
+		}
+		for (Vec2 goal : config.getGoals()) {
+			builder.append("goal ").append(goal.x).append(' ').append(goal.y)
+					.append('\n');
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,8 @@
+package game;
+
+/**
+ * Level of the events recorded into an {@link EventLog}.
+ */
+public enum LogLevel {
+	DEBUG, INFO, WARNING
+}
@@ -0,0 +1,234 @@
+package game;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Measures of the game: counters of steps, contacts and frames, and
+ * histograms of the durations of the steps and of the frames. Counters are
+ * striped, so the threads of the rounds and of the renderer record into
+ * them without contention, and nothing is allocated when recording.
+ */
+public final class Metrics implements MetricsMXBean {
+	/**
+	 * Name under which {@link #register()} exposes the metrics
+	 */
+	public static final String OBJECT_NAME = "game:type=Metrics";
+	/**
+	 * Metrics used by the rounds and the renderer unless others are given
+	 */
+	private static final Metrics DEFAULT = create();
+
+	private final LongAdder steps = new LongAdder();
+	private final LongAdder contacts = new LongAdder();
+	private final LongAdder frames = new LongAdder();
+	private final LongAdder droppedFrames = new LongAdder();
+	private final LongAdder skippedFrames = new LongAdder();
+	private volatile int activeBullets = 0;
+	private final Histogram stepTime = Histogram.create();
+	private final Histogram frameTime = Histogram.create();
+	private final Histogram frameJitter = Histogram.create();
+
+	private Metrics() {
+	}
+
+	/**
+	 * Create empty metrics.
+	 *
+	 * @return new Metrics
+	 */
+	public static Metrics create() {
+		return new Metrics();
+	}
+
+	/**
+	 * Get the metrics used by the rounds and the renderer unless others are
+	 * given.
+	 *
+	 * @return default metrics
+	 */
+	public static Metrics getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Expose the metrics through the platform MBean server, under
+	 * {@link #OBJECT_NAME}.
+	 *
+	 * @throws JMException
+	 *             if metrics are already registered under this name
+	 */
+	public void register() throws JMException {
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+				new ObjectName(OBJECT_NAME));
+	}
+
+	/**
+	 * Record a step.
+	 *
+	 * @param nanos
+	 *            duration of the step
+	 * @param bullets
+	 *            number of bullets in play after the step
+	 */
+	void recordStep(long nanos, int bullets) {
+		steps.increment();
+		stepTime.record(nanos);
+		activeBullets = bullets;
+	}
+
+	/**
+	 * Record a contact which began.
+	 */
+	void recordContact() {
+		contacts.increment();
+	}
+
+	/**
+	 * Record a frame.
+	 *
+	 * @param nanos
+	 *            duration of the frame
+	 */
+	void recordFrame(long nanos) {
+		frames.increment();
+		frameTime.record(nanos);
+	}
+
+	/**
+	 * Record the delay between the time a frame was due and the time it
+	 * began.
+	 *
+	 * @param nanos
+	 *            delay of the frame
+	 */
+	void recordFrameJitter(long nanos) {
+		frameJitter.record(nanos);
+	}
+
+	/**
+	 * Record frames which were not rendered in time.
+	 *
+	 * @param count
+	 *            number of frames dropped
+	 */
+	void recordDroppedFrames(long count) {
+		droppedFrames.add(count);
+	}
+
+	/**
+	 * Record a frame not rendered because it would have shown the same
+	 * picture as the last one.
+	 */
+	void recordSkippedFrame() {
+		skippedFrames.increment();
+	}
+
+	/**
+	 * Get the histogram of the durations of the steps.
+	 *
+	 * @return durations in nanoseconds
+	 */
+	public Histogram getStepTime() {
+		return stepTime;
+	}
+
+	/**
+	 * Get the histogram of the durations of the frames.
+	 *
+	 * @return durations in nanoseconds
+	 */
+	public Histogram getFrameTime() {
+		return frameTime;
+	}
+
+	/**
+	 * Get the histogram of the delays between the times frames were due and
+	 * the times they began.
+	 *
+	 * @return delays in nanoseconds
+	 */
+	public Histogram getFrameJitter() {
+		return frameJitter;
+	}
+
+	@Override
+	public long getSteps() {
+		return steps.sum();
+	}
+
+	@Override
+	public long getContacts() {
+		return contacts.sum();
+	}
+
+	@Override
+	public long getFrames() {
+		return frames.sum();
+	}
+
+	@Override
+	public long getDroppedFrames() {
+		return droppedFrames.sum();
+	}
+
+	@Override
+	public long getSkippedFrames() {
+		return skippedFrames.sum();
+	}
+
+	@Override
+	public int getActiveBullets() {
+		return activeBullets;
+	}
+
+	@Override
+	public double getStepTimeP50() {
+		return stepTime.getValueAtPercentile(50) / 1e3;
+	}
+
+	@Override
+	public double getStepTimeP99() {
+		return stepTime.getValueAtPercentile(99) / 1e3;
+	}
+
+	@Override
+	public double getStepTimeMax() {
+		return stepTime.getMax() / 1e3;
+	}
+
+	@Override
+	public double getFrameTimeP50() {
+		return frameTime.getValueAtPercentile(50) / 1e3;
+	}
+
+	@Override
+	public double getFrameTimeP99() {
+		return frameTime.getValueAtPercentile(99) / 1e3;
+	}
+
+	@Override
+	public double getFrameTimeMax() {
+		return frameTime.getMax() / 1e3;
+	}
+
+	@Override
+	public double getFrameJitterP99() {
+		return frameJitter.getValueAtPercentile(99) / 1e3;
+	}
+
+	@Override
+	public void reset() {
+		steps.reset();
+		contacts.reset();
+		frames.reset();
+		droppedFrames.reset();
+		skippedFrames.reset();
+		stepTime.reset();
+		frameTime.reset();
+		frameJitter.reset();
+	}
+}
@@ -0,0 +1,106 @@
+package game;
+
+/**
+ * Management interface of {@link Metrics}, seen through JMX. Durations are
+ * in microseconds.
+ */
+public interface MetricsMXBean {
+	/**
+	 * Get the number of steps calculated.
+	 *
+	 * @return number of steps
+	 */
+	long getSteps();
+
+	/**
+	 * Get the number of contacts which began.
+	 *
+	 * @return number of contacts
+	 */
+	long getContacts();
+
+	/**
+	 * Get the number of frames rendered.
+	 *
+	 * @return number of frames
+	 */
+	long getFrames();
+
+	/**
+	 * Get the number of frames which should have been rendered but were
+	 * not, because the previous one was late.
+	 *
+	 * @return number of dropped frames
+	 */
+	long getDroppedFrames();
+
+	/**
+	 * Get the number of frames not rendered because nothing changed since
+	 * the last one.
+	 *
+	 * @return number of skipped frames
+	 */
+	long getSkippedFrames();
+
+	/**
+	 * Get the number of bullets in play after the last step.
+	 *
+	 * @return number of bullets
+	 */
+	int getActiveBullets();
+
+	/**
+	 * Get the median duration of a step.
+	 *
+	 * @return duration in microseconds
+	 */
+	double getStepTimeP50();
+
+	/**
+	 * Get the duration under which 99% of the steps were calculated.
+	 *
+	 * @return duration in microseconds
+	 */
+	double getStepTimeP99();
+
+	/**
+	 * Get the longest duration of a step.
+	 *
+	 * @return duration in microseconds
+	 */
+	double getStepTimeMax();
+
+	/**
+	 * Get the median duration of a frame.
+	 *
+	 * @return duration in microseconds
+	 */
+	double getFrameTimeP50();
+
+	/**
+	 * Get the duration under which 99% of the frames were rendered.
+	 *
+	 * @return duration in microseconds
+	 */
+	double getFrameTimeP99();
+
+	/**
+	 * Get the longest duration of a frame.
+	 *
+	 * @return duration in microseconds
+	 */
+	double getFrameTimeMax();
+
+	/**
+	 * Get the delay under which 99% of the frames began after the time they
+	 * were due.
+	 *
+	 * @return delay in microseconds
+	 */
+	double getFrameJitterP99();
+
+	/**
+	 * Forget everything recorded so far.
+	 */
+	void reset();
+}
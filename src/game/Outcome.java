@@ -0,0 +1,8 @@
+package game;
+
+/**
+ * Outcome of a round.
+ */
+public enum Outcome {
+	VICTORY, DEFEAT, UNFINISHED
+}
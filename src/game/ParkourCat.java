@@ -1,6 +1,5 @@
 package game;
 
-import java.awt.Graphics2D;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jbox2d.common.Vec2;
@@ -32,7 +31,7 @@ public final class ParkourCat extends Bullet {
 	 * @return new ParkourCat
 	 */
 	public static ParkourCat create(World world, Vec2 position, Vec2 velocity,
-			Float angularVelocity) {
+			float angularVelocity) {
 		Body body;
 		BodyDef bodyDef = getBodyDef(position, velocity, angularVelocity);
 		do {
@@ -45,11 +44,6 @@ public final class ParkourCat extends Bullet {
 		super(body, getFixtureDef());
 	}
 
-	@Override
-	public void draw(Graphics2D g) {
-		// TODO Auto-generated method stub
-	}
-
 	@Override
 	public void beginContact(Body body) {
 		super.beginContact(body);
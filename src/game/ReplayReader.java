@@ -0,0 +1,303 @@
+package game;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Read a replay file written by {@link ReplayRecorder}. The file is mapped in
+ * memory, so opening it only reads its header and the position of its
+ * index. A replay whose index is missing, because the round was not stopped
+ * properly, can still be read from its beginning.
+ */
+public final class ReplayReader {
+	private static final EventKind[] KINDS = EventKind.values();
+
+	private final MappedByteBuffer buffer;
+	private final float timeStep;
+	private final RoundConfig config;
+	/**
+	 * Offset of the first record
+	 */
+	private final int recordsStart;
+	/**
+	 * Offset of the end of the records
+	 */
+	private final int recordsEnd;
+	/**
+	 * Offset of the index, -1 if the replay has no index
+	 */
+	private final int indexStart;
+	/**
+	 * Number of entries in the index
+	 */
+	private final int indexSize;
+
+	private ReplayReader(MappedByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		try {
+			if (buffer.getInt(0) != ReplayRecorder.MAGIC) {
+				throw new IOException("Not a replay.");
+			}
+			if (buffer.get(4) != ReplayRecorder.VERSION) {
+				throw new IOException("Unknown version of replay.");
+			}
+			ByteBuffer header = buffer.duplicate();
+			header.position(5);
+			timeStep = header.getFloat();
+			config = RoundConfig.read(header);
+			recordsStart = header.position();
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException("Truncated replay.", e);
+		}
+		int limit = buffer.limit();
+		if (limit - recordsStart >= 16
+				&& buffer.getInt(limit - 4) == ReplayRecorder.INDEX_MAGIC) {
+			indexSize = buffer.getInt(limit - 8);
+			long start = buffer.getLong(limit - 16);
+			// Entries of 16 bytes between the records and the trailer
+			if (indexSize < 0 || start < recordsStart
+					|| start + indexSize * 16L != limit - 16) {
+				throw new IOException("Corrupt index of replay.");
+			}
+			indexStart = (int) start;
+			recordsEnd = indexStart;
+			checkIndex();
+		} else {
+			indexSize = 0;
+			indexStart = -1;
+			recordsEnd = limit;
+		}
+	}
+
+	/**
+	 * Check that the entries of the index point into the records, in order.
+	 *
+	 * @throws IOException
+	 *             if an entry does not
+	 */
+	private void checkIndex() throws IOException {
+		long previous = Long.MIN_VALUE;
+		for (int i = 0; i < indexSize; i++) {
+			long step = buffer.getLong(indexStart + i * 16);
+			long offset = buffer.getLong(indexStart + i * 16 + 8);
+			if (step < previous || offset < recordsStart
+					|| offset > recordsEnd) {
+				throw new IOException("Corrupt index of replay.");
+			}
+			previous = step;
+		}
+	}
+
+	/**
+	 * Open a replay file.
+	 *
+	 * @param path
+	 *            of the file
+	 * @return new ReplayReader
+	 * @throws IOException
+	 *             if the file cannot be read or is not a replay
+	 */
+	public static ReplayReader open(String path) throws IOException {
+		try (FileChannel channel = FileChannel.open(
+				Paths.get(Objects.requireNonNull(path)),
+				StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Replay too large.");
+			}
+			return new ReplayReader(channel.map(FileChannel.MapMode.READ_ONLY,
+					0, channel.size()));
+		}
+	}
+
+	/**
+	 * Get the configuration of the recorded round, seed included.
+	 *
+	 * @return configuration of the round
+	 */
+	public RoundConfig getConfig() {
+		return config;
+	}
+
+	/**
+	 * Get the time step of the recorded round.
+	 *
+	 * @return time step in seconds
+	 */
+	public float getTimeStep() {
+		return timeStep;
+	}
+
+	/**
+	 * Get a cursor on the events of the replay, from its beginning.
+	 *
+	 * @return new Cursor
+	 */
+	public Cursor events() {
+		return new Cursor(recordsStart, 0);
+	}
+
+	/**
+	 * Get a cursor on the events of the replay, from the first event which
+	 * happened at step or after.
+	 *
+	 * @param step
+	 *            of the first event
+	 * @return new Cursor
+	 * @throws IOException
+	 *             if a record before the event is corrupt
+	 */
+	public Cursor seek(long step) throws IOException {
+		int low = 0;
+		int high = indexSize - 1;
+		int found = -1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (buffer.getLong(indexStart + middle * 16) < step) {
+				found = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		Cursor cursor = found < 0 ? events() : new Cursor(
+				(int) buffer.getLong(indexStart + found * 16 + 8),
+				buffer.getLong(indexStart + found * 16));
+		cursor.skipTo(step);
+		return cursor;
+	}
+
+	/**
+	 * Cursor on the events of a replay, in order.
+	 */
+	public final class Cursor {
+		private final ByteBuffer records;
+		private long step;
+		private EventKind kind;
+		private int first;
+		private int second;
+		/**
+		 * True if the current event has been read but not returned by
+		 * {@link #next()} yet
+		 */
+		private boolean pending = false;
+
+		private Cursor(int offset, long step) {
+			records = buffer.duplicate();
+			records.limit(recordsEnd).position(offset);
+			this.step = step;
+		}
+
+		/**
+		 * Move to the next event.
+		 *
+		 * @return False if there is no more event
+		 * @throws IOException
+		 *             if the record of the event is corrupt
+		 */
+		public boolean next() throws IOException {
+			if (pending) {
+				pending = false;
+				return true;
+			}
+			if (!records.hasRemaining()) {
+				return false;
+			}
+			try {
+				long nextStep = step + readVarint();
+				int kindIndex = records.get();
+				int nextFirst = (int) readVarint() - 1;
+				int nextSecond = (int) readVarint() - 1;
+				if (kindIndex < 0 || kindIndex >= KINDS.length) {
+					throw new IOException("Corrupt record of replay.");
+				}
+				step = nextStep;
+				kind = KINDS[kindIndex];
+				first = nextFirst;
+				second = nextSecond;
+				return true;
+			} catch (BufferUnderflowException e) {
+				// Record cut by the end of an incomplete replay
+				records.position(records.limit());
+				return false;
+			}
+		}
+
+		/**
+		 * Read the events before step, so that the next event is the first
+		 * which happened at step or after.
+		 *
+		 * @param target
+		 *            step of the next event
+		 * @throws IOException
+		 *             if a record is corrupt
+		 */
+		private void skipTo(long target) throws IOException {
+			while (next()) {
+				if (step >= target) {
+					pending = true;
+					return;
+				}
+			}
+		}
+
+		private long readVarint() throws IOException {
+			long value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				if (shift > 63) {
+					throw new IOException("Corrupt record of replay.");
+				}
+				b = records.get();
+				value |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			return value;
+		}
+
+		/**
+		 * Get the step of the current event.
+		 *
+		 * @return number of the step
+		 */
+		public long getStep() {
+			return step;
+		}
+
+		/**
+		 * Get the kind of the current event.
+		 *
+		 * @return kind of the event
+		 */
+		public EventKind getKind() {
+			return kind;
+		}
+
+		/**
+		 * Get the index in the round of the first element of the current
+		 * event, as in the snapshots.
+		 *
+		 * @return index of the element, -1 for a wall, or ordinal of the
+		 *         {@link Outcome} for {@link EventKind#ROUND_END}
+		 */
+		public int getFirst() {
+			return first;
+		}
+
+		/**
+		 * Get the index in the round of the second element of the current
+		 * event.
+		 *
+		 * @return index of the element, -1 for a wall or none
+		 */
+		public int getSecond() {
+			return second;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Record the events of a round into a replay file, read by
+ * {@link ReplayReader}.
+ *
+ * A replay starts with a header: {@link #MAGIC}, {@link #VERSION}, the time
+ * step and the {@link RoundConfig} of the round, seed included. Events
+ * follow, one record each: the number of steps since the previous event,
+ * the kind of the event and the indexes of the two elements, as varints.
+ * Every {@link #INDEX_INTERVAL} steps, the offset of the next record is
+ * added to an index written at the end of the file with {@link #INDEX_MAGIC}.
+ * The records written so far are flushed to the file at each entry, so that
+ * they can be read even if the round never ends.
+ */
+public final class ReplayRecorder implements RoundListener, Closeable {
+	static final int MAGIC = 0x53544b52;
+	static final int INDEX_MAGIC = 0x53544b49;
+	static final byte VERSION = 3;
+	/**
+	 * Number of steps between two entries of the index
+	 */
+	static final long INDEX_INTERVAL = 256;
+
+	private final OutputStream out;
+	/**
+	 * Number of bytes written so far
+	 */
+	private long position = 0;
+	/**
+	 * Step of the previous event, steps of events are written relative to it
+	 */
+	private long previousStep = 0;
+	/**
+	 * First step of the next entry of the index
+	 */
+	private long nextIndexStep = 0;
+	/**
+	 * Entries of the index: step of the event before the entry, then the
+	 * offset of the first record after it
+	 */
+	private long[] index = new long[16];
+	private int indexSize = 0;
+	private boolean closed = false;
+
+	private ReplayRecorder(OutputStream out, RoundConfig config,
+			float timeStep) throws IOException {
+		this.out = out;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream header = new DataOutputStream(bytes);
+		header.writeInt(MAGIC);
+		header.writeByte(VERSION);
+		header.writeFloat(timeStep);
+		config.write(header);
+		header.flush();
+		bytes.writeTo(out);
+		position = bytes.size();
+	}
+
+	/**
+	 * Record a round into a file, until it ends.
+	 *
+	 * @param round
+	 *            to record, created from a {@link RoundConfig}
+	 * @param path
+	 *            of the file
+	 * @return new ReplayRecorder, listening to round
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static ReplayRecorder record(Round round, String path)
+			throws IOException {
+		RoundConfig config = round.getConfig();
+		if (config == null) {
+			throw new IllegalArgumentException(
+					"Round must be created from a configuration.");
+		}
+		if (round.isStarted()) {
+			throw new IllegalStateException("Le round a dj dmarr");
+		}
+		ReplayRecorder recorder = new ReplayRecorder(new BufferedOutputStream(
+				new FileOutputStream(Objects.requireNonNull(path)), 1 << 16),
+				config, round.getTimeStep());
+		round.addListener(recorder);
+		return recorder;
+	}
+
+	@Override
+	public void onLaunch(Round round, Bullet bullet) {
+		write(round.getStepCount(), EventKind.LAUNCH, bullet.getIndex(), -1);
+	}
+
+	@Override
+	public void onContact(Round round, EventKind kind, GameElement first,
+			GameElement second) {
+		write(round.getStepCount(), kind, first == null ? -1 : first.getIndex(),
+				second == null ? -1 : second.getIndex());
+	}
+
+	@Override
+	public void onEnd(Round round, Outcome outcome) {
+		write(round.getStepCount(), EventKind.ROUND_END, outcome.ordinal(), -1);
+		try {
+			close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Close the file without a {@link EventKind#ROUND_END} record, so that
+	 * the file is not left open when the round fails.
+	 */
+	@Override
+	public void onFailure(Round round, Throwable cause) {
+		try {
+			close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Write the record of an event.
+	 *
+	 * @param step
+	 *            of the event
+	 * @param kind
+	 *            of the event
+	 * @param first
+	 *            index of the first element, -1 if none
+	 * @param second
+	 *            index of the second element, -1 if none
+	 */
+	private void write(long step, EventKind kind, int first, int second) {
+		if (closed) {
+			return;
+		}
+		try {
+			if (step >= nextIndexStep) {
+				out.flush();
+				if (indexSize == index.length) {
+					index = Arrays.copyOf(index, indexSize * 2);
+				}
+				index[indexSize++] = previousStep;
+				index[indexSize++] = position;
+				nextIndexStep = step - step % INDEX_INTERVAL + INDEX_INTERVAL;
+			}
+			writeVarint(step - previousStep);
+			out.write(kind.ordinal());
+			position++;
+			writeVarint(first + 1L);
+			writeVarint(second + 1L);
+			previousStep = step;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Write a positive number on as few bytes as needed, seven bits each.
+	 *
+	 * @param value
+	 *            to write
+	 * @throws IOException
+	 */
+	private void writeVarint(long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+			position++;
+		}
+		out.write((int) value);
+		position++;
+	}
+
+	/**
+	 * Write the index and close the file. Called when the round ends or
+	 * fails.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			DataOutputStream trailer = new DataOutputStream(out);
+			for (int i = 0; i < indexSize; i++) {
+				trailer.writeLong(index[i]);
+			}
+			trailer.writeLong(position);
+			trailer.writeInt(indexSize / 2);
+			trailer.writeInt(INDEX_MAGIC);
+			trailer.flush();
+		} finally {
+			out.close();
+		}
+	}
+}
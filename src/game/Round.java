@@ -1,12 +1,21 @@
 package game;
 
+import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.jbox2d.collision.shapes.PolygonShape;
 import org.jbox2d.common.Vec2;
@@ -48,18 +57,91 @@ public class Round {
 	private final int velocityIterations = 6;
 	private final int positionIterations = 2;
 	/**
-	 * Lock use for waiting end of the round
+	 * Clock giving the pace of the steps
 	 */
-	private final Object endLock = new Object();
+	private volatile SimulationClock clock = SimulationClock.create(timeStep);
+	/**
+	 * Listener of the contacts in the world
+	 */
+	private final Collide collide = new Collide();
+	/**
+	 * Launches of the bullets planned by the launchers
+	 */
+	private final LaunchScheduler launches = new LaunchScheduler();
+	/**
+	 * Changes of the world made while contacts are dispatched
+	 */
+	private final WorldCommands commands = new WorldCommands();
+	/**
+	 * Where events of the round are logged
+	 */
+	private volatile EventLog log = EventLog.getDefault();
+	/**
+	 * Where the steps of the round are measured
+	 */
+	private volatile Metrics metrics = Metrics.getDefault();
+	/**
+	 * Completed with the outcome of the round when it ends
+	 */
+	private final CompletableFuture<Outcome> completion = new CompletableFuture<>();
+	/**
+	 * Listeners of the round
+	 */
+	private final CopyOnWriteArrayList<RoundListener> listeners = new CopyOnWriteArrayList<>();
+	/**
+	 * Number of full goals
+	 */
+	private final AtomicInteger fullGoals = new AtomicInteger();
+	/**
+	 * Number of stopped bullets
+	 */
+	private final AtomicInteger stoppedBullets = new AtomicInteger();
 	/**
 	 * True if the round already started
 	 */
 	private final AtomicBoolean started = new AtomicBoolean();
 	/**
-	 * List of all world where a round is already attached
+	 * Walls around the area, in game units
+	 */
+	private final ArrayList<Rectangle2D.Float> walls = new ArrayList<>();
+	/**
+	 * Incremented each time the static part of the round (walls, launchers,
+	 * goals) changes graphically
+	 */
+	private final AtomicInteger sceneVersion = new AtomicInteger();
+	/**
+	 * Launchers, goals and bullets, indexed as in the snapshots
+	 */
+	private GameElement[] elements = new GameElement[0];
+	/**
+	 * Number of elements
+	 */
+	private int elementCount = 0;
+	/**
+	 * Number of steps already calculated
+	 */
+	private volatile long stepCount = 0;
+	/**
+	 * Configuration the round was created from, null if none
+	 */
+	private RoundConfig config;
+	/**
+	 * Called with each bullet launched
+	 */
+	private final Consumer<Bullet> launched = this::launched;
+	/**
+	 * Snapshots published after each step for the renderer
+	 */
+	private final SnapshotBuffer snapshots = new SnapshotBuffer();
+	/**
+	 * List of all world where a round is already attached. Worlds are held
+	 * weakly: a world and its round are released together once neither is
+	 * used any more, even though the elements of the world refer back to
+	 * the round.
 	 */
 	private static final Set<World> worldsAttached = Collections
-			.synchronizedSet(new HashSet<>());
+			.synchronizedSet(Collections
+					.newSetFromMap(new WeakHashMap<World, Boolean>()));
 
 	private Round(World world, float width, float height) {
 		if (width <= 0 || height <= 0) {
@@ -77,15 +159,20 @@ public class Round {
 
 	public static Round create(World world, float width, float height) {
 		Round round = new Round(world, width, height);
-		world.setContactListener(new Collide());
+		world.setContactListener(round.collide);
 		round.createWalls();
+		round.publish();
 		return round;
 	}
 
-	@Override
-	protected void finalize() throws Throwable {
-		super.finalize();
-		worldsAttached.remove(world);
+	/**
+	 * Get the number of worlds attached to a round which are not released
+	 * yet.
+	 * 
+	 * @return number of worlds
+	 */
+	static int getAttachedWorlds() {
+		return worldsAttached.size();
 	}
 
 	/**
@@ -111,6 +198,8 @@ public class Round {
 		filter.categoryBits = 0x0001;
 		filter.maskBits = 0xFFFF;
 		fixture.setFilterData(filter);
+		walls.add(new Rectangle2D.Float(x - width, y - height, width * 2,
+				height * 2));
 	}
 
 	/**
@@ -162,7 +251,80 @@ public class Round {
 	 *            to draw in.
 	 */
 	public void draw(Graphics2D graphic) {
-		// TODO Dessiner le terrain
+		graphic.setColor(Color.DARK_GRAY);
+		for (Rectangle2D.Float wall : walls) {
+			graphic.fillRect(Graphics.gameToGraphicX(wall.x),
+					Graphics.gameToGraphicY(wall.y + wall.height),
+					Graphics.gameToGraphicX(wall.width),
+					Graphics.gameToGraphicX(wall.height));
+		}
+	}
+
+	/**
+	 * Draw area and walls in the view of the camera, in pixels.
+	 * 
+	 * @param graphic
+	 *            to draw in.
+	 * @param camera
+	 *            of the frame
+	 */
+	public void draw(Graphics2D graphic, Camera camera) {
+		graphic.setColor(Color.DARK_GRAY);
+		for (Rectangle2D.Float wall : walls) {
+			if (wall.x > camera.getMaxX() || wall.x + wall.width < camera.getMinX()
+					|| wall.y > camera.getMaxY()
+					|| wall.y + wall.height < camera.getMinY()) {
+				continue;
+			}
+			int left = Math.round(camera.toScreenX(wall.x));
+			int top = Math.round(camera.toScreenY(wall.y + wall.height));
+			int right = Math.round(camera.toScreenX(wall.x + wall.width));
+			int bottom = Math.round(camera.toScreenY(wall.y));
+			graphic.fillRect(left, top, right - left, bottom - top);
+		}
+	}
+
+	/**
+	 * Get the version of the static part of the round (walls, launchers and
+	 * goals). It changes each time one of them must be drawn again.
+	 * 
+	 * @return version of the static part
+	 */
+	public int getSceneVersion() {
+		return sceneVersion.get();
+	}
+
+	/**
+	 * Get the last snapshot of the round, published after the last step. Only
+	 * one thread (the renderer) may call this method: the snapshot returned
+	 * stays unchanged until its next call.
+	 * 
+	 * @return last snapshot
+	 */
+	public WorldSnapshot getSnapshot() {
+		return snapshots.acquire();
+	}
+
+	/**
+	 * Add an element to the ones published in snapshots
+	 * 
+	 * @param element
+	 *            to add
+	 */
+	private void addElement(GameElement element) {
+		if (elementCount == elements.length) {
+			elements = Arrays.copyOf(elements, Math.max(8, elementCount * 2));
+		}
+		element.setIndex(elementCount);
+		elements[elementCount++] = element;
+	}
+
+	/**
+	 * Publish the state of the elements for the renderer
+	 */
+	private int publish() {
+		return snapshots.publish(stepCount, width, height, sceneVersion.get(),
+				elements, elementCount, computeVictory(), computeDefeat());
 	}
 
 	/**
@@ -183,12 +345,7 @@ public class Round {
 	 * @return True if victory
 	 */
 	public boolean isVictory() {
-		for (Goal goal : goals) {
-			if (!goal.isFull()) {
-				return false;
-			}
-		}
-		return true;
+		return snapshots.isVictory();
 	}
 
 	/**
@@ -197,49 +354,314 @@ public class Round {
 	 * @return True if defeat
 	 */
 	public boolean isDefeat() {
-		return bullets.stream().map(bullet -> bullet.isStopped())
-				.reduce(false, (a, b) -> a || b);
+		return snapshots.isDefeat();
+	}
+
+	/**
+	 * Check if all goals are full
+	 * 
+	 * @return True if victory
+	 */
+	private boolean computeVictory() {
+		return fullGoals.get() == goals.size();
+	}
+
+	/**
+	 * Check if a bullet stopped
+	 * 
+	 * @return True if defeat
+	 */
+	private boolean computeDefeat() {
+		return stoppedBullets.get() > 0;
 	}
 
 	/**
-	 * Calculation of a new step
+	 * Check if the round ended, without waiting for the next snapshot
+	 * 
+	 * @return True if victory or defeat
 	 */
-	private void update() {
+	private boolean isEnded() {
+		return computeVictory() || computeDefeat();
+	}
+
+	/**
+	 * Calculation of a new step, measured into the metrics of the round and
+	 * recorded as a {@link FlightEvents.Step}
+	 */
+	void update() {
+		FlightEvents.Step event = new FlightEvents.Step();
+		event.begin();
+		long start = System.nanoTime();
+		long contacts = collide.getContactCount();
+		launches.fire(stepCount, launched);
+		collide.setStep(stepCount + 1);
 		try {
 			world.step(timeStep, velocityIterations, positionIterations);
 		} catch (Exception e) {
 			// TODO
 		}
+		commands.defer();
+		try {
+			collide.dispatch(this, listeners);
+		} finally {
+			commands.apply();
+		}
+		stepCount++;
+		int bullets = publish();
+		metrics.recordStep(System.nanoTime() - start, bullets);
+		if (event.shouldCommit()) {
+			event.step = stepCount;
+			event.bullets = bullets;
+			event.contacts = (int) (collide.getContactCount() - contacts);
+			event.commit();
+		}
+		for (RoundListener listener : listeners) {
+			listener.onStep(this);
+		}
 	}
 
 	/**
 	 * Let's the round begin !
 	 */
 	public void start() {
+		start(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Let's the round begin, and stop it after maxSteps steps if it is not
+	 * ended.
+	 * 
+	 * @param maxSteps
+	 *            maximum number of steps to calculate
+	 */
+	public void start(long maxSteps) {
 		if (started.getAndSet(true)) {
 			throw new IllegalStateException("Le round a dj dmarr");
 		}
 		startLaunch();
+		FlightEvents.transition(stepCount, "start", null);
+		clock.start();
 
-		do {
-			update();
-		} while (!isVictory() && !isDefeat());
+		try {
+			do {
+				clock.awaitNextStep();
+				for (int steps = clock.advance(); steps > 0 && !isEnded()
+						&& stepCount < maxSteps; steps--) {
+					update();
+				}
+			} while (!isEnded() && stepCount < maxSteps);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			stopLaunch();
+			for (RoundListener listener : listeners) {
+				try {
+					listener.onFailure(this, e);
+				} catch (RuntimeException suppressed) {
+					e.addSuppressed(suppressed);
+				}
+			}
+			completion.completeExceptionally(e);
+			throw e;
+		}
 
 		stopLaunch();
-		synchronized (endLock) {
-			endLock.notifyAll();
+		Outcome outcome = getOutcome();
+		log.record(EventKind.ROUND_END, stepCount, outcome.ordinal(), -1);
+		FlightEvents.transition(stepCount, "end", outcome);
+		for (RoundListener listener : listeners) {
+			if (outcome == Outcome.VICTORY) {
+				listener.onVictory(this);
+			} else if (outcome == Outcome.DEFEAT) {
+				listener.onDefeat(this);
+			}
+			listener.onEnd(this, outcome);
 		}
+		completion.complete(outcome);
+	}
+
+	/**
+	 * Add a listener of the events of the round
+	 * 
+	 * @param listener
+	 *            to add
+	 */
+	public void addListener(RoundListener listener) {
+		listeners.add(Objects.requireNonNull(listener));
+	}
+
+	/**
+	 * Get a future completed with the outcome of the round when it ends. The
+	 * outcome is {@link Outcome#UNFINISHED} if the round was stopped before
+	 * its end.
+	 * 
+	 * @return completion of the round
+	 */
+	public CompletableFuture<Outcome> getCompletion() {
+		return completion;
+	}
+
+	/**
+	 * Get the clock giving the pace of the round.
+	 * 
+	 * @return clock of the round
+	 */
+	public SimulationClock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Set the clock giving the pace of the round.
+	 * 
+	 * @param clock
+	 *            of the round
+	 */
+	public void setClock(SimulationClock clock) {
+		if (isStarted()) {
+			throw new IllegalStateException("Le round a dj dmarr");
+		}
+		this.clock = Objects.requireNonNull(clock);
+	}
+
+	/**
+	 * Set the log where the events of the round are recorded.
+	 * 
+	 * @param log
+	 *            of the events
+	 */
+	public void setEventLog(EventLog log) {
+		this.log = Objects.requireNonNull(log);
+		collide.setEventLog(log);
+	}
+
+	/**
+	 * Set the metrics where the steps and contacts of the round are
+	 * measured.
+	 * 
+	 * @param metrics
+	 *            of the round
+	 */
+	public void setMetrics(Metrics metrics) {
+		this.metrics = Objects.requireNonNull(metrics);
+		collide.setMetrics(metrics);
+	}
+
+	/**
+	 * Get the metrics where the round and its frames are measured.
+	 * 
+	 * @return metrics of the round
+	 */
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Get the duration of a step
+	 * 
+	 * @return duration of a step in seconds
+	 */
+	public float getTimeStep() {
+		return timeStep;
+	}
+
+	/**
+	 * Get the number of steps already calculated
+	 * 
+	 * @return number of steps
+	 */
+	public long getStepCount() {
+		return stepCount;
+	}
+
+	/**
+	 * Get the number of contacts which began in the world since its creation
+	 * 
+	 * @return number of contacts
+	 */
+	public long getContactCount() {
+		return collide.getContactCount();
+	}
+
+	/**
+	 * Get the outcome of the round
+	 * 
+	 * @return outcome of the last step
+	 */
+	public Outcome getOutcome() {
+		if (isVictory()) {
+			return Outcome.VICTORY;
+		}
+		if (isDefeat()) {
+			return Outcome.DEFEAT;
+		}
+		return Outcome.UNFINISHED;
+	}
+
+	/**
+	 * Pause the round. The thread running the round waits until
+	 * {@link #resume()}.
+	 */
+	public void pause() {
+		clock.pause();
+		FlightEvents.transition(stepCount, "pause", null);
+	}
+
+	/**
+	 * Resume the round after {@link #pause()}.
+	 */
+	public void resume() {
+		clock.resume();
+		FlightEvents.transition(stepCount, "resume", null);
 	}
 
 	/**
 	 * Make current thread waiting for the end of the round.
 	 */
 	public void waitForEnd() throws InterruptedException {
-		synchronized (endLock) {
-			while (!isVictory() && !isDefeat()) {
-				endLock.wait();
-			}
+		try {
+			completion.get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Log a bullet launched and notify the listeners
+	 * 
+	 * @param bullet
+	 *            launched
+	 */
+	private void launched(Bullet bullet) {
+		log.record(EventKind.LAUNCH, stepCount, bullet.getId(), -1);
+		FlightEvents.BulletActivation event = new FlightEvents.BulletActivation();
+		if (event.shouldCommit()) {
+			event.step = stepCount;
+			event.bullet = bullet.getId();
+			event.type = bullet.getClass().getSimpleName();
+			event.commit();
 		}
+		for (RoundListener listener : listeners) {
+			listener.onLaunch(this, bullet);
+		}
+	}
+
+	/**
+	 * Get the configuration the round was created from.
+	 * 
+	 * @return configuration, null if the round was built element by element
+	 */
+	public RoundConfig getConfig() {
+		return config;
+	}
+
+	/**
+	 * Set the configuration the round was created from.
+	 * 
+	 * @param config
+	 *            of the round
+	 */
+	void setConfig(RoundConfig config) {
+		this.config = Objects.requireNonNull(config);
 	}
 
 	/**
@@ -247,13 +669,26 @@ public class Round {
 	 */
 	private void stopLaunch() {
 		launchers.stream().forEach(l -> l.stopLaunch());
+		launches.clear();
 	}
 
 	/**
-	 * Run all launcher
+	 * Run all launcher: their bullets are launched on the following steps
 	 */
 	private void startLaunch() {
-		launchers.stream().map(l -> l.launch()).forEach(b -> bullets.addAll(b));
+		for (Launcher launcher : launchers) {
+			Set<Bullet> launched = launcher.launch();
+			long interval = Math.max(1,
+					Math.round(launcher.getWaitTime() / 1000f / timeStep));
+			launches.schedule(launcher, launched, stepCount, interval);
+			bullets.addAll(launched);
+		}
+		for (Bullet bullet : bullets) {
+			bullet.addStopListener(b -> stoppedBullets.incrementAndGet());
+			bullet.attach(commands);
+			addElement(bullet);
+		}
+		publish();
 	}
 
 	/**
@@ -273,7 +708,18 @@ public class Round {
 		if (!goal.isInWorld(world)) {
 			throw new IllegalStateException("Goal is not in the world.");
 		}
-		goals.add(goal);
+		if (goals.add(goal)) {
+			goal.addReceiveListener(g -> {
+				if (g.isFull()) {
+					fullGoals.incrementAndGet();
+				}
+				sceneVersion.incrementAndGet();
+			});
+			sceneVersion.incrementAndGet();
+			goal.attach(commands);
+			addElement(goal);
+			publish();
+		}
 	}
 
 	/**
@@ -302,7 +748,37 @@ public class Round {
 		if (!launcher.isInWorld(world)) {
 			throw new IllegalStateException("Launcher is not in the world.");
 		}
-		launchers.add(launcher);
+		if (launchers.add(launcher)) {
+			sceneVersion.incrementAndGet();
+			launcher.attach(commands);
+			addElement(launcher);
+			publish();
+		}
+	}
+
+	/**
+	 * Add a wall inside the area
+	 * 
+	 * @param x
+	 *            of the bottom left corner of the wall
+	 * @param y
+	 *            of the bottom left corner of the wall
+	 * @param width
+	 *            of the wall
+	 * @param height
+	 *            of the wall
+	 */
+	public void addWall(float x, float y, float width, float height) {
+		if (isStarted()) {
+			throw new IllegalStateException("Le round a dj dmarr");
+		}
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException(
+					"Dimension of the wall must be positive.");
+		}
+		createWall(x + width / 2, y + height / 2, width / 2, height / 2);
+		sceneVersion.incrementAndGet();
+		publish();
 	}
 
 	/**
@@ -0,0 +1,392 @@
+package game;
+
+import java.awt.geom.Rectangle2D;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.World;
+
+/**
+ * Description of a round: its area, walls, launchers and goals. Used to
+ * create as many independent rounds as needed by {@link BatchSimulation},
+ * and read from the levels (see {@link Levels#parse(CharSequence)}).
+ */
+public final class RoundConfig {
+	private final float width;
+	private final float height;
+	private final List<LauncherConfig> launchers;
+	private final List<Rectangle2D.Float> walls;
+	private final List<Vec2> goals;
+	private final long seed;
+
+	private RoundConfig(float width, float height,
+			List<LauncherConfig> launchers, List<Rectangle2D.Float> walls,
+			List<Vec2> goals, long seed) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException(
+					"Dimension of the board must be positive.");
+		}
+		if (launchers.isEmpty()) {
+			throw new IllegalArgumentException(
+					"Round must have a launcher.");
+		}
+		this.width = width;
+		this.height = height;
+		ArrayList<LauncherConfig> launchersCopy = new ArrayList<>();
+		for (LauncherConfig launcher : launchers) {
+			launchersCopy.add(Objects.requireNonNull(launcher));
+		}
+		this.launchers = Collections.unmodifiableList(launchersCopy);
+		ArrayList<Rectangle2D.Float> wallsCopy = new ArrayList<>();
+		for (Rectangle2D.Float wall : walls) {
+			if (wall.width <= 0 || wall.height <= 0) {
+				throw new IllegalArgumentException(
+						"Dimension of the wall must be positive.");
+			}
+			wallsCopy.add(new Rectangle2D.Float(wall.x, wall.y, wall.width,
+					wall.height));
+		}
+		this.walls = Collections.unmodifiableList(wallsCopy);
+		ArrayList<Vec2> copy = new ArrayList<>();
+		for (Vec2 goal : goals) {
+			copy.add(new Vec2(Objects.requireNonNull(goal)));
+		}
+		this.goals = Collections.unmodifiableList(copy);
+		this.seed = seed;
+	}
+
+	/**
+	 * Create a configuration.
+	 * 
+	 * @param width
+	 *            of the area
+	 * @param height
+	 *            of the area
+	 * @param launcherPosition
+	 *            position of the launcher
+	 * @param orientation
+	 *            of the canon
+	 * @param bullets
+	 *            classes of the bullets to launch, in order
+	 * @param goals
+	 *            positions of the goals
+	 * @param seed
+	 *            of the angles given to the bullets
+	 * @return new RoundConfig
+	 */
+	public static RoundConfig create(float width, float height,
+			Vec2 launcherPosition, Vec2 orientation,
+			List<Class<? extends Bullet>> bullets, List<Vec2> goals, long seed) {
+		return create(width, height, Collections.singletonList(LauncherConfig
+				.create(launcherPosition, orientation, bullets)), Collections
+				.emptyList(), goals, seed);
+	}
+
+	/**
+	 * Create a configuration with any number of launchers and walls.
+	 * 
+	 * @param width
+	 *            of the area
+	 * @param height
+	 *            of the area
+	 * @param launchers
+	 *            of the round, at least one
+	 * @param walls
+	 *            inside the area, from their bottom left corner
+	 * @param goals
+	 *            positions of the goals
+	 * @param seed
+	 *            of the angles given to the bullets
+	 * @return new RoundConfig
+	 */
+	public static RoundConfig create(float width, float height,
+			List<LauncherConfig> launchers, List<Rectangle2D.Float> walls,
+			List<Vec2> goals, long seed) {
+		return new RoundConfig(width, height,
+				Objects.requireNonNull(launchers),
+				Objects.requireNonNull(walls), Objects.requireNonNull(goals),
+				seed);
+	}
+
+	/**
+	 * Get the same configuration with another seed.
+	 * 
+	 * @param seed
+	 *            of the angles given to the bullets
+	 * @return new RoundConfig
+	 */
+	public RoundConfig withSeed(long seed) {
+		return new RoundConfig(width, height, launchers, walls, goals, seed);
+	}
+
+	/**
+	 * Get the same configuration with another orientation of the canons.
+	 * 
+	 * @param orientation
+	 *            of the canons
+	 * @return new RoundConfig
+	 */
+	public RoundConfig withOrientation(Vec2 orientation) {
+		Objects.requireNonNull(orientation);
+		ArrayList<LauncherConfig> oriented = new ArrayList<>();
+		for (LauncherConfig launcher : launchers) {
+			oriented.add(launcher.withOrientation(orientation));
+		}
+		return new RoundConfig(width, height, oriented, walls, goals, seed);
+	}
+
+	/**
+	 * Get the width of the area
+	 * 
+	 * @return width
+	 */
+	public float getWidth() {
+		return width;
+	}
+
+	/**
+	 * Get the height of the area
+	 * 
+	 * @return height
+	 */
+	public float getHeight() {
+		return height;
+	}
+
+	/**
+	 * Get the launchers
+	 * 
+	 * @return unmodifiable list of launchers
+	 */
+	public List<LauncherConfig> getLaunchers() {
+		return launchers;
+	}
+
+	/**
+	 * Get the walls inside the area
+	 * 
+	 * @return new list of walls, from their bottom left corner
+	 */
+	public List<Rectangle2D.Float> getWalls() {
+		ArrayList<Rectangle2D.Float> copy = new ArrayList<>();
+		for (Rectangle2D.Float wall : walls) {
+			copy.add(new Rectangle2D.Float(wall.x, wall.y, wall.width,
+					wall.height));
+		}
+		return copy;
+	}
+
+	/**
+	 * Get the positions of the goals
+	 * 
+	 * @return new list of positions
+	 */
+	public List<Vec2> getGoals() {
+		ArrayList<Vec2> copy = new ArrayList<>();
+		for (Vec2 goal : goals) {
+			copy.add(new Vec2(goal));
+		}
+		return copy;
+	}
+
+	/**
+	 * Get the number of goals
+	 * 
+	 * @return number of goals
+	 */
+	public int getGoalCount() {
+		return goals.size();
+	}
+
+	/**
+	 * Create a new round, in its own world, from this configuration.
+	 * 
+	 * @return new Round
+	 * @throws NoSuchMethodException
+	 *             if a class of bullet has no create method
+	 * @throws IllegalAccessException
+	 *             if a create method cannot be called
+	 */
+	public Round createRound() throws NoSuchMethodException,
+			IllegalAccessException {
+		World world = new World(new Vec2(0, 0));
+		Round round = Round.create(world, width, height);
+		for (Rectangle2D.Float wall : walls) {
+			round.addWall(wall.x, wall.y, wall.width, wall.height);
+		}
+		for (int i = 0; i < launchers.size(); i++) {
+			round.add(launchers.get(i).createLauncher(world, seed + i));
+		}
+		for (Vec2 goal : goals) {
+			round.add(Goal.create(world, goal));
+		}
+		round.setConfig(this);
+		return round;
+	}
+
+	/**
+	 * Get the seed of the angles given to the bullets
+	 * 
+	 * @return seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Write the configuration. The names of the bullet classes are written
+	 * once, in a table, and each bullet as the varint index of its class in
+	 * the table.
+	 * 
+	 * @param out
+	 *            where the configuration is written
+	 * @throws IOException
+	 */
+	void write(DataOutputStream out) throws IOException {
+		out.writeFloat(width);
+		out.writeFloat(height);
+		LinkedHashMap<Class<? extends Bullet>, Integer> classes = new LinkedHashMap<>();
+		for (LauncherConfig launcher : launchers) {
+			for (Class<? extends Bullet> bullet : launcher.getBullets()) {
+				if (!classes.containsKey(bullet)) {
+					classes.put(bullet, classes.size());
+				}
+			}
+		}
+		writeVarint(out, classes.size());
+		for (Class<? extends Bullet> bullet : classes.keySet()) {
+			byte[] name = bullet.getName().getBytes(StandardCharsets.UTF_8);
+			out.writeShort(name.length);
+			out.write(name);
+		}
+		out.writeInt(launchers.size());
+		for (LauncherConfig launcher : launchers) {
+			Vec2 position = launcher.getPosition();
+			Vec2 orientation = launcher.getOrientation();
+			out.writeFloat(position.x);
+			out.writeFloat(position.y);
+			out.writeFloat(orientation.x);
+			out.writeFloat(orientation.y);
+			out.writeInt(launcher.getBullets().size());
+			for (Class<? extends Bullet> bullet : launcher.getBullets()) {
+				writeVarint(out, classes.get(bullet));
+			}
+		}
+		out.writeInt(walls.size());
+		for (Rectangle2D.Float wall : walls) {
+			out.writeFloat(wall.x);
+			out.writeFloat(wall.y);
+			out.writeFloat(wall.width);
+			out.writeFloat(wall.height);
+		}
+		out.writeInt(goals.size());
+		for (Vec2 goal : goals) {
+			out.writeFloat(goal.x);
+			out.writeFloat(goal.y);
+		}
+		out.writeLong(seed);
+	}
+
+	/**
+	 * Read a configuration written by {@link #write(DataOutputStream)}.
+	 * 
+	 * @param in
+	 *            buffer positioned on the configuration
+	 * @return configuration read
+	 * @throws IOException
+	 *             if a bullet class is unknown or out of the table
+	 */
+	static RoundConfig read(ByteBuffer in) throws IOException {
+		float width = in.getFloat();
+		float height = in.getFloat();
+		int classCount = readVarint(in);
+		ArrayList<Class<? extends Bullet>> classes = new ArrayList<>();
+		for (int i = 0; i < classCount; i++) {
+			byte[] name = new byte[in.getShort() & 0xFFFF];
+			in.get(name);
+			classes.add(Levels.getBulletClass(new String(name,
+					StandardCharsets.UTF_8)));
+		}
+		int launcherCount = in.getInt();
+		ArrayList<LauncherConfig> launchers = new ArrayList<>();
+		for (int l = 0; l < launcherCount; l++) {
+			Vec2 position = new Vec2(in.getFloat(), in.getFloat());
+			Vec2 orientation = new Vec2(in.getFloat(), in.getFloat());
+			int bulletCount = in.getInt();
+			ArrayList<Class<? extends Bullet>> bullets = new ArrayList<>();
+			for (int i = 0; i < bulletCount; i++) {
+				int index = readVarint(in);
+				if (index >= classes.size()) {
+					throw new IOException("Unknown bullet class " + index + ".");
+				}
+				bullets.add(classes.get(index));
+			}
+			launchers.add(LauncherConfig.create(position, orientation,
+					bullets));
+		}
+		int wallCount = in.getInt();
+		ArrayList<Rectangle2D.Float> walls = new ArrayList<>();
+		for (int i = 0; i < wallCount; i++) {
+			walls.add(new Rectangle2D.Float(in.getFloat(), in.getFloat(), in
+					.getFloat(), in.getFloat()));
+		}
+		int goalCount = in.getInt();
+		ArrayList<Vec2> goals = new ArrayList<>();
+		for (int i = 0; i < goalCount; i++) {
+			goals.add(new Vec2(in.getFloat(), in.getFloat()));
+		}
+		return new RoundConfig(width, height, launchers, walls, goals,
+				in.getLong());
+	}
+
+	/**
+	 * Write a positive number on as few bytes as possible, seven bits at a
+	 * time.
+	 * 
+	 * @param out
+	 *            where the number is written
+	 * @param value
+	 *            to write
+	 * @throws IOException
+	 */
+	private static void writeVarint(DataOutputStream out, int value)
+			throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte(value & 0x7F | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/**
+	 * Read a number written by {@link #writeVarint(DataOutputStream, int)}.
+	 * 
+	 * @param in
+	 *            buffer positioned on the number
+	 * @return number read
+	 * @throws IOException
+	 *             if the number does not fit in an int
+	 */
+	private static int readVarint(ByteBuffer in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			byte b = in.get();
+			if (shift == 28 && (b & 0xF8) != 0) {
+				break;
+			}
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IOException("Invalid varint.");
+	}
+}
@@ -0,0 +1,89 @@
+package game;
+
+/**
+ * Listener of the events of a round. Methods are called by the thread
+ * running the round.
+ */
+public interface RoundListener {
+	/**
+	 * Called when the round ends with a victory.
+	 * 
+	 * @param round
+	 *            which ended
+	 */
+	default void onVictory(Round round) {
+	}
+
+	/**
+	 * Called when the round ends with a defeat.
+	 * 
+	 * @param round
+	 *            which ended
+	 */
+	default void onDefeat(Round round) {
+	}
+
+	/**
+	 * Called after each step of the round, once its contacts are dispatched.
+	 * 
+	 * @param round
+	 *            which made a step
+	 */
+	default void onStep(Round round) {
+	}
+
+	/**
+	 * Called when a launcher launches a bullet, before the step where it
+	 * starts moving.
+	 * 
+	 * @param round
+	 *            of the bullet
+	 * @param bullet
+	 *            launched
+	 */
+	default void onLaunch(Round round, Bullet bullet) {
+	}
+
+	/**
+	 * Called after the step where a contact began or ended, before the
+	 * elements react to it.
+	 * 
+	 * @param round
+	 *            of the elements
+	 * @param kind
+	 *            {@link EventKind#BEGIN_CONTACT} or
+	 *            {@link EventKind#END_CONTACT}
+	 * @param first
+	 *            element in contact, null for a wall
+	 * @param second
+	 *            element in contact, null for a wall
+	 */
+	default void onContact(Round round, EventKind kind, GameElement first,
+			GameElement second) {
+	}
+
+	/**
+	 * Called when the round stops, whatever its outcome, after
+	 * {@link #onVictory(Round)} or {@link #onDefeat(Round)}.
+	 * 
+	 * @param round
+	 *            which stopped
+	 * @param outcome
+	 *            of the round
+	 */
+	default void onEnd(Round round, Outcome outcome) {
+	}
+
+	/**
+	 * Called when the round stops because a step threw an exception,
+	 * instead of {@link #onEnd(Round, Outcome)}. Exceptions thrown by this
+	 * method are added as suppressed to the one of the round.
+	 * 
+	 * @param round
+	 *            which stopped
+	 * @param cause
+	 *            exception thrown by the round
+	 */
+	default void onFailure(Round round, Throwable cause) {
+	}
+}
@@ -0,0 +1,72 @@
+package game;
+
+import java.util.Objects;
+
+/**
+ * Result of a round run by {@link HeadlessRunner}.
+ */
+public final class RunReport {
+	private final Outcome outcome;
+	private final long steps;
+	private final long contacts;
+	private final long wallNanos;
+
+	RunReport(Outcome outcome, long steps, long contacts, long wallNanos) {
+		this.outcome = Objects.requireNonNull(outcome);
+		this.steps = steps;
+		this.contacts = contacts;
+		this.wallNanos = wallNanos;
+	}
+
+	/**
+	 * Get the outcome of the round
+	 * 
+	 * @return outcome
+	 */
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	/**
+	 * Get the number of steps simulated
+	 * 
+	 * @return number of steps
+	 */
+	public long getSteps() {
+		return steps;
+	}
+
+	/**
+	 * Get the number of contacts which began during the run
+	 * 
+	 * @return number of contacts
+	 */
+	public long getContacts() {
+		return contacts;
+	}
+
+	/**
+	 * Get the mean number of contacts per step
+	 * 
+	 * @return contacts per step
+	 */
+	public double getContactsPerStep() {
+		return steps == 0 ? 0 : (double) contacts / steps;
+	}
+
+	/**
+	 * Get the wall time of the run
+	 * 
+	 * @return duration in nanoseconds
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"%s after %d steps, %.3f contacts/step, %.3f ms", outcome,
+				steps, getContactsPerStep(), wallNanos / 1e6);
+	}
+}
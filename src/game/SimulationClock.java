@@ -0,0 +1,171 @@
+package game;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clock of a round. It tells the physics thread how many fixed steps must be
+ * computed to follow the wall time, parks the thread until the next step is
+ * due, and tells the renderer how far it is between the last two steps.
+ */
+public class SimulationClock {
+	/**
+	 * Maximum number of steps computed at once to catch up with wall time.
+	 * Beyond that, the late time is dropped and the simulation slows down.
+	 */
+	private static final int MAX_STEPS = 5;
+	/**
+	 * Duration of a step in nanoseconds
+	 */
+	private final long stepNanos;
+	/**
+	 * False if steps are computed as fast as possible, ignoring wall time
+	 */
+	private final boolean paced;
+	/**
+	 * Wall time reached by the steps already computed
+	 */
+	private volatile long stepTime;
+	/**
+	 * Wall time when the clock has been paused
+	 */
+	private volatile long pausedTime;
+	/**
+	 * True if the clock is paused
+	 */
+	private volatile boolean paused = false;
+
+	private SimulationClock(long stepNanos, boolean paced) {
+		if (stepNanos <= 0) {
+			throw new IllegalArgumentException("Time step must be positive.");
+		}
+		this.stepNanos = stepNanos;
+		this.paced = paced;
+	}
+
+	/**
+	 * Create a clock doing one step each timeStep seconds.
+	 *
+	 * @param timeStep
+	 *            duration of a step in seconds
+	 * @return new SimulationClock
+	 */
+	public static SimulationClock create(float timeStep) {
+		return new SimulationClock(Math.round(timeStep
+				* TimeUnit.SECONDS.toNanos(1)), true);
+	}
+
+	/**
+	 * Create a clock which never waits: a step is always due, unless the
+	 * clock is paused.
+	 *
+	 * @param timeStep
+	 *            duration of a step in seconds
+	 * @return new SimulationClock
+	 */
+	public static SimulationClock unpaced(float timeStep) {
+		return new SimulationClock(Math.round(timeStep
+				* TimeUnit.SECONDS.toNanos(1)), false);
+	}
+
+	/**
+	 * Start counting time from now.
+	 */
+	public void start() {
+		stepTime = System.nanoTime();
+	}
+
+	/**
+	 * Get the number of steps to compute to catch up with wall time. They are
+	 * considered as done once returned.
+	 *
+	 * @return number of steps
+	 */
+	public synchronized int advance() {
+		if (paused) {
+			return 0;
+		}
+		if (!paced) {
+			return 1;
+		}
+		long now = System.nanoTime();
+		long steps = (now - stepTime) / stepNanos;
+		if (steps > MAX_STEPS) {
+			stepTime = now - MAX_STEPS * stepNanos;
+			steps = MAX_STEPS;
+		}
+		stepTime += steps * stepNanos;
+		return (int) steps;
+	}
+
+	/**
+	 * Park current thread until the next step is due, or until the clock is
+	 * resumed if it is paused.
+	 *
+	 * @throws InterruptedException
+	 *             if the thread is interrupted while waiting
+	 */
+	public void awaitNextStep() throws InterruptedException {
+		synchronized (this) {
+			while (paused) {
+				wait();
+			}
+		}
+		if (!paced) {
+			return;
+		}
+		long remaining;
+		while ((remaining = stepTime + stepNanos - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(this, remaining);
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+	}
+
+	/**
+	 * Pause the clock. No step is due until {@link #resume()}.
+	 */
+	public synchronized void pause() {
+		if (!paused) {
+			pausedTime = System.nanoTime();
+			paused = true;
+		}
+	}
+
+	/**
+	 * Resume the clock, ignoring the time spent in pause.
+	 */
+	public synchronized void resume() {
+		if (paused) {
+			stepTime += System.nanoTime() - pausedTime;
+			paused = false;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Check if the clock is paused
+	 *
+	 * @return True if paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Get the position of the wall time between the last computed step
+	 * (0) and the next one (1). Used to interpolate positions of the
+	 * elements when they are drawn.
+	 *
+	 * @return interpolation factor between 0 and 1
+	 */
+	public float getAlpha() {
+		if (!paced) {
+			return 1;
+		}
+		long now = paused ? pausedTime : System.nanoTime();
+		float alpha = (float) (now - stepTime) / stepNanos;
+		return Math.max(0, Math.min(1, alpha));
+	}
+}
@@ -0,0 +1,207 @@
+package game;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exchange of {@link WorldSnapshot} between the physics thread (the writer)
+ * and the rendering thread (the reader), without lock.
+ *
+ * Three snapshots are used: the writer fills its back snapshot and swaps it
+ * atomically with the middle one; the reader swaps the middle one with its
+ * front snapshot when a newer one has been published. A snapshot handed to
+ * the reader is therefore never written again until the reader releases it
+ * by acquiring another one.
+ */
+final class SnapshotBuffer {
+	/**
+	 * Bit set in {@link #middle} when it holds a snapshot not read yet
+	 */
+	private static final int FRESH = 4;
+	private final WorldSnapshot[] snapshots = { new WorldSnapshot(),
+			new WorldSnapshot(), new WorldSnapshot() };
+	/**
+	 * Index of the middle snapshot, with {@link #FRESH} bit
+	 */
+	private final AtomicInteger middle = new AtomicInteger(1);
+	/**
+	 * Index of the snapshot filled by the writer
+	 */
+	private int back = 0;
+	/**
+	 * Index of the snapshot read by the reader
+	 */
+	private int front = 2;
+	/**
+	 * Positions published by the last snapshot, owned by the writer
+	 */
+	private float[] lastX = new float[0];
+	private float[] lastY = new float[0];
+	private float[] lastAngle = new float[0];
+	private int[] lastFlags = new int[0];
+	private int lastSize = 0;
+	private int lastSceneVersion = 0;
+	/**
+	 * Version given to the last snapshot
+	 */
+	private int version = 0;
+	/**
+	 * Outcome of the last published snapshot
+	 */
+	private volatile boolean victory;
+	private volatile boolean defeat;
+
+	/**
+	 * Fill the back snapshot with the current state of elements and publish
+	 * it. Its version changes only if an element moved or changed state, or
+	 * if elements or the static part of the round changed, since the last
+	 * snapshot. Must only be called by one thread at a time.
+	 *
+	 * @param step
+	 *            number of the step
+	 * @param width
+	 *            of the area
+	 * @param height
+	 *            of the area
+	 * @param sceneVersion
+	 *            version of the static part of the round
+	 * @param elements
+	 *            of the round
+	 * @param size
+	 *            number of elements
+	 * @param victory
+	 *            True if the round ended with a victory
+	 * @param defeat
+	 *            True if the round ended with a defeat
+	 * @return number of bullets in play in the snapshot
+	 */
+	int publish(long step, float width, float height, int sceneVersion,
+			GameElement[] elements, int size, boolean victory, boolean defeat) {
+		WorldSnapshot snapshot = snapshots[back];
+		snapshot.ensureCapacity(size);
+		if (lastX.length < size) {
+			lastX = Arrays.copyOf(lastX, size);
+			lastY = Arrays.copyOf(lastY, size);
+			lastAngle = Arrays.copyOf(lastAngle, size);
+			lastFlags = Arrays.copyOf(lastFlags, size);
+		}
+		snapshot.step = step;
+		snapshot.sceneVersion = sceneVersion;
+		snapshot.elements = elements;
+		snapshot.size = size;
+		boolean moving = false;
+		boolean changed = size != lastSize || sceneVersion != lastSceneVersion;
+		for (int i = 0; i < size; i++) {
+			GameElement element = elements[i];
+			snapshot.x[i] = element.getPosition().x;
+			snapshot.y[i] = element.getPosition().y;
+			snapshot.angle[i] = element.getAngle();
+			snapshot.flags[i] = element.getStateFlags();
+			if (i >= lastSize) {
+				lastX[i] = snapshot.x[i];
+				lastY[i] = snapshot.y[i];
+				lastAngle[i] = snapshot.angle[i];
+			} else if (snapshot.x[i] != lastX[i] || snapshot.y[i] != lastY[i]
+					|| snapshot.angle[i] != lastAngle[i]) {
+				moving = true;
+			} else if (snapshot.flags[i] != lastFlags[i]) {
+				changed = true;
+			}
+		}
+		if (moving || changed) {
+			version++;
+		}
+		snapshot.version = version;
+		snapshot.moving = moving;
+		System.arraycopy(lastX, 0, snapshot.previousX, 0, size);
+		System.arraycopy(lastY, 0, snapshot.previousY, 0, size);
+		System.arraycopy(lastAngle, 0, snapshot.previousAngle, 0, size);
+		System.arraycopy(snapshot.x, 0, lastX, 0, size);
+		System.arraycopy(snapshot.y, 0, lastY, 0, size);
+		System.arraycopy(snapshot.angle, 0, lastAngle, 0, size);
+		System.arraycopy(snapshot.flags, 0, lastFlags, 0, size);
+		lastSize = size;
+		lastSceneVersion = sceneVersion;
+		index(snapshot, width, height);
+
+		int bullets = snapshot.bullets.size();
+		back = middle.getAndSet(back | FRESH) & ~FRESH;
+		this.victory = victory;
+		this.defeat = defeat;
+		return bullets;
+	}
+
+	/**
+	 * Index the drawn bullets of a snapshot by cell, and its launchers and
+	 * goals if the static part of the round changed.
+	 *
+	 * @param snapshot
+	 *            filled
+	 * @param width
+	 *            of the area
+	 * @param height
+	 *            of the area
+	 */
+	private static void index(WorldSnapshot snapshot, float width,
+			float height) {
+		SpatialGrid bullets = snapshot.bullets;
+		SpatialGrid statics = snapshot.statics;
+		bullets.resize(width, height);
+		bullets.clear();
+		boolean rebuild = snapshot.staticVersion != snapshot.sceneVersion;
+		if (rebuild) {
+			statics.resize(width, height);
+			statics.clear();
+		}
+		for (int i = 0; i < snapshot.size; i++) {
+			GameElement element = snapshot.elements[i];
+			float x = snapshot.x[i];
+			float y = snapshot.y[i];
+			if (element.getKind() == ElementKind.BULLET) {
+				if ((snapshot.flags[i] & (WorldSnapshot.ACTIVE | WorldSnapshot.STOPPED)) != 0) {
+					bullets.add(i, x, y, element.getBoundingRadius()
+							+ Math.abs(x - snapshot.previousX[i])
+							+ Math.abs(y - snapshot.previousY[i]));
+				}
+			} else if (rebuild) {
+				statics.add(i, x, y, element.getBoundingRadius());
+			}
+		}
+		bullets.sort();
+		if (rebuild) {
+			statics.sort();
+			snapshot.staticVersion = snapshot.sceneVersion;
+		}
+	}
+
+	/**
+	 * Get the last published snapshot. Must only be called by one thread:
+	 * the returned snapshot stays valid until the next call.
+	 *
+	 * @return last published snapshot
+	 */
+	WorldSnapshot acquire() {
+		if ((middle.get() & FRESH) != 0) {
+			front = middle.getAndSet(front) & ~FRESH;
+		}
+		return snapshots[front];
+	}
+
+	/**
+	 * Check if the last published snapshot ended the round with a victory
+	 *
+	 * @return True if victory
+	 */
+	boolean isVictory() {
+		return victory;
+	}
+
+	/**
+	 * Check if the last published snapshot ended the round with a defeat
+	 *
+	 * @return True if defeat
+	 */
+	boolean isDefeat() {
+		return defeat;
+	}
+}
@@ -0,0 +1,201 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the area of a round, indexing elements of a
+ * {@link WorldSnapshot} by the cell of their center. Elements of a cell are
+ * stored contiguously, sorted by a counting sort, so building the grid costs
+ * one pass over the elements and one over the cells, without allocation
+ * once the arrays are large enough.
+ *
+ * An element is only in the cell of its center: a query widens the asked
+ * rectangle by {@link #getMargin()}, the largest bounding radius of the
+ * elements plus their largest move during the last step.
+ */
+final class SpatialGrid {
+	/**
+	 * Maximum number of cells, whatever the size of the area
+	 */
+	static final int MAX_CELLS = 4096;
+
+	private float width = 0;
+	private float height = 0;
+	private float cellSize = 1;
+	private int columns = 1;
+	private int rows = 1;
+	/**
+	 * Offset in {@link #entries} of the first element of each cell, then of
+	 * the end of the last cell
+	 */
+	private int[] cellStart = new int[2];
+	/**
+	 * Indexes of the elements in the snapshot, sorted by cell
+	 */
+	private int[] entries = new int[0];
+	/**
+	 * Cell of each element added, in the order of addition
+	 */
+	private int[] cells = new int[0];
+	/**
+	 * Index of each element added, in the order of addition
+	 */
+	private int[] added = new int[0];
+	private int count = 0;
+	private float margin = 0;
+
+	/**
+	 * Cover an area with cells of one game unit, or larger ones if there
+	 * would be more than {@link #MAX_CELLS}.
+	 *
+	 * @param width
+	 *            of the area
+	 * @param height
+	 *            of the area
+	 */
+	void resize(float width, float height) {
+		if (width == this.width && height == this.height) {
+			return;
+		}
+		this.width = width;
+		this.height = height;
+		float size = Math.max(1, (float) Math.sqrt(width * height / MAX_CELLS));
+		int newColumns = Math.max(1, (int) Math.ceil(width / size));
+		int newRows = Math.max(1, (int) Math.ceil(height / size));
+		cellSize = size;
+		columns = newColumns;
+		rows = newRows;
+		if (cellStart.length < columns * rows + 1) {
+			cellStart = new int[columns * rows + 1];
+		}
+	}
+
+	/**
+	 * Remove all the elements.
+	 */
+	void clear() {
+		count = 0;
+		margin = 0;
+	}
+
+	/**
+	 * Add an element. {@link #sort()} must be called before querying.
+	 *
+	 * @param index
+	 *            of the element in the snapshot
+	 * @param x
+	 *            of its center
+	 * @param y
+	 *            of its center
+	 * @param reach
+	 *            distance from its center to its farthest drawn point
+	 */
+	void add(int index, float x, float y, float reach) {
+		if (count == added.length) {
+			int capacity = Math.max(16, count * 2);
+			added = Arrays.copyOf(added, capacity);
+			cells = Arrays.copyOf(cells, capacity);
+			entries = new int[capacity];
+		}
+		added[count] = index;
+		cells[count] = getRow(y) * columns + getColumn(x);
+		count++;
+		if (reach > margin) {
+			margin = reach;
+		}
+	}
+
+	/**
+	 * Sort the elements added by cell.
+	 */
+	void sort() {
+		int cellCount = columns * rows;
+		Arrays.fill(cellStart, 0, cellCount + 1, 0);
+		for (int i = 0; i < count; i++) {
+			cellStart[cells[i] + 1]++;
+		}
+		for (int cell = 0; cell < cellCount; cell++) {
+			cellStart[cell + 1] += cellStart[cell];
+		}
+		// Fill each cell from its end: cellStart[cell + 1] ends on the start
+		// of the cell, and is shifted back in place afterwards
+		for (int i = count - 1; i >= 0; i--) {
+			entries[--cellStart[cells[i] + 1]] = added[i];
+		}
+		System.arraycopy(cellStart, 1, cellStart, 0, cellCount);
+		cellStart[cellCount] = count;
+	}
+
+	/**
+	 * Get the column of an x coordinate, clamped to the grid.
+	 *
+	 * @param x
+	 *            in game units
+	 * @return column
+	 */
+	int getColumn(float x) {
+		int column = (int) Math.floor(x / cellSize);
+		return Math.max(0, Math.min(columns - 1, column));
+	}
+
+	/**
+	 * Get the row of a y coordinate, clamped to the grid.
+	 *
+	 * @param y
+	 *            in game units
+	 * @return row
+	 */
+	int getRow(float y) {
+		int row = (int) Math.floor(y / cellSize);
+		return Math.max(0, Math.min(rows - 1, row));
+	}
+
+	/**
+	 * Write into visible the elements whose cell may be drawn in a
+	 * rectangle, widened by {@link #getMargin()}.
+	 *
+	 * @param minX
+	 *            left of the rectangle
+	 * @param minY
+	 *            bottom of the rectangle
+	 * @param maxX
+	 *            right of the rectangle
+	 * @param maxY
+	 *            top of the rectangle
+	 * @param visible
+	 *            buffer of at least {@link #size()} values receiving the
+	 *            indexes of the elements
+	 * @return number of elements written
+	 */
+	int query(float minX, float minY, float maxX, float maxY, int[] visible) {
+		int firstColumn = getColumn(minX - margin);
+		int lastColumn = getColumn(maxX + margin);
+		int lastRow = getRow(maxY + margin);
+		int found = 0;
+		for (int row = getRow(minY - margin); row <= lastRow; row++) {
+			int from = cellStart[row * columns + firstColumn];
+			int to = cellStart[row * columns + lastColumn + 1];
+			System.arraycopy(entries, from, visible, found, to - from);
+			found += to - from;
+		}
+		return found;
+	}
+
+	/**
+	 * Get the distance by which queries must be widened.
+	 *
+	 * @return margin in game units
+	 */
+	float getMargin() {
+		return margin;
+	}
+
+	/**
+	 * Get the number of elements.
+	 *
+	 * @return number of elements
+	 */
+	int size() {
+		return count;
+	}
+}
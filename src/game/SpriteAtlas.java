@@ -0,0 +1,317 @@
+package game;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Templates of the elements of a round (see {@link GameElement#getTemplate()})
+ * filled once at {@link #ANGLES} angles into one image, for the scale of a
+ * camera. Drawing an element then copies the cell of the angle nearest to
+ * its own instead of filling its outline. An element type can be given an
+ * image, its skin, which is drawn over the bounds of its template instead
+ * of filling it.
+ */
+final class SpriteAtlas {
+	/**
+	 * Number of angles each template is filled at
+	 */
+	static final int ANGLES = 64;
+	/**
+	 * Number of cells of a template on a line of the atlas
+	 */
+	private static final int COLUMNS = 8;
+	/**
+	 * Largest cell, in pixels. Templates bigger at the scale of the camera
+	 * are filled each time they are drawn.
+	 */
+	private static final int MAX_CELL_SIZE = 64;
+	/**
+	 * Images drawn instead of the templates of some element types
+	 */
+	private static final ConcurrentHashMap<Class<? extends GameElement>, BufferedImage> skins = new ConcurrentHashMap<>();
+	/**
+	 * Number of times the skins changed
+	 */
+	private static final AtomicInteger skinsVersion = new AtomicInteger();
+
+	/**
+	 * Template filled into the atlas
+	 */
+	private static final class Sprite {
+		/**
+		 * Color of the template
+		 */
+		private final Color color;
+		/**
+		 * Side of a cell in pixels
+		 */
+		private final int size;
+		/**
+		 * Ordinate of the first line of cells in the atlas
+		 */
+		private final int top;
+
+		Sprite(Color color, int size, int top) {
+			this.color = color;
+			this.size = size;
+			this.top = top;
+		}
+	}
+
+	/**
+	 * Sprites of the templates of the elements of the round when the atlas
+	 * was filled, by type of the elements, since types sharing a template
+	 * may have different skins. Templates too big to be in the atlas are
+	 * mapped to null.
+	 */
+	private final Map<Class<? extends GameElement>, Map<Shape, Sprite>> sprites = new HashMap<>();
+	/**
+	 * Number of sprites in the atlas
+	 */
+	private int size;
+	/**
+	 * Number of elements in the snapshot when the atlas was filled
+	 */
+	private int elements;
+	private BufferedImage image;
+	/**
+	 * Round whose templates are in the atlas
+	 */
+	private Round round;
+	private float scaleX;
+	private float scaleY;
+	private int version = -1;
+
+	private SpriteAtlas() {
+	}
+
+	/**
+	 * Create an empty atlas.
+	 *
+	 * @return new SpriteAtlas
+	 */
+	static SpriteAtlas create() {
+		return new SpriteAtlas();
+	}
+
+	/**
+	 * Draw an image instead of the template of an element type.
+	 *
+	 * @param type
+	 *            of the elements
+	 * @param skin
+	 *            image stretched over the bounds of the template, null to
+	 *            fill the template again
+	 */
+	static void setSkin(Class<? extends GameElement> type, BufferedImage skin) {
+		Objects.requireNonNull(type);
+		if (skin == null) {
+			skins.remove(type);
+		} else {
+			skins.put(type, skin);
+		}
+		skinsVersion.incrementAndGet();
+	}
+
+	/**
+	 * Fill the templates of the elements of a round into the atlas, unless
+	 * it already holds them at the scale of the camera. Elements added to
+	 * the round since, such as bullets given to a launcher, are checked for
+	 * templates the atlas does not hold yet.
+	 *
+	 * @param round
+	 *            whose elements are drawn
+	 * @param snapshot
+	 *            of the round
+	 * @param camera
+	 *            of the frames
+	 * @return True if the atlas was filled again
+	 */
+	boolean update(Round round, WorldSnapshot snapshot, Camera camera) {
+		if (round == this.round && camera.getScaleX() == scaleX
+				&& camera.getScaleY() == scaleY
+				&& skinsVersion.get() == version
+				&& (snapshot.size() == elements || !hasNewTemplate(snapshot))) {
+			return false;
+		}
+		this.round = round;
+		scaleX = camera.getScaleX();
+		scaleY = camera.getScaleY();
+		version = skinsVersion.get();
+		sprites.clear();
+		size = 0;
+		elements = snapshot.size();
+		List<GameElement> owners = new ArrayList<>();
+		int height = 0;
+		int width = 0;
+		for (int i = 0; i < snapshot.size(); i++) {
+			GameElement element = snapshot.getElement(i);
+			Shape template = element.getTemplate();
+			Map<Shape, Sprite> typeSprites = sprites.computeIfAbsent(
+					element.getClass(), type -> new IdentityHashMap<>());
+			if (typeSprites.containsKey(template)) {
+				continue;
+			}
+			int cellSize = 2 * (int) Math.ceil(element.getBoundingRadius()
+					* Math.max(scaleX, scaleY)) + 2;
+			if (cellSize > MAX_CELL_SIZE) {
+				typeSprites.put(template, null);
+				continue;
+			}
+			typeSprites.put(template, new Sprite(
+					Graphics.getColor(element.getKind()), cellSize, height));
+			size++;
+			owners.add(element);
+			height += cellSize * (ANGLES / COLUMNS);
+			width = Math.max(width, cellSize * COLUMNS);
+		}
+		if (owners.isEmpty()) {
+			image = null;
+			return true;
+		}
+		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = image.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+					RenderingHints.VALUE_ANTIALIAS_ON);
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			for (GameElement owner : owners) {
+				fill(graphics, owner);
+			}
+		} finally {
+			graphics.dispose();
+		}
+		return true;
+	}
+
+	/**
+	 * Check if elements were added to a snapshot with a type or a template
+	 * the atlas does not know yet.
+	 *
+	 * @param snapshot
+	 *            of the round of the atlas
+	 * @return True if the atlas must be filled again
+	 */
+	private boolean hasNewTemplate(WorldSnapshot snapshot) {
+		for (int i = 0; i < snapshot.size(); i++) {
+			GameElement element = snapshot.getElement(i);
+			Map<Shape, Sprite> typeSprites = sprites.get(element.getClass());
+			if (typeSprites == null
+					|| !typeSprites.containsKey(element.getTemplate())) {
+				return true;
+			}
+		}
+		elements = snapshot.size();
+		return false;
+	}
+
+	/**
+	 * Fill the template of an element at each angle into its cells.
+	 *
+	 * @param graphics
+	 *            of the atlas
+	 * @param owner
+	 *            element of the template
+	 */
+	private void fill(Graphics2D graphics, GameElement owner) {
+		Shape template = owner.getTemplate();
+		Sprite sprite = sprites.get(owner.getClass()).get(template);
+		BufferedImage skin = skins.get(owner.getClass());
+		Rectangle2D bounds = template.getBounds2D();
+		AffineTransform base = graphics.getTransform();
+		graphics.setColor(sprite.color);
+		for (int angle = 0; angle < ANGLES; angle++) {
+			graphics.setTransform(base);
+			graphics.translate(getLeft(sprite, angle) + sprite.size / 2,
+					getTop(sprite, angle) + sprite.size / 2);
+			graphics.scale(scaleX, scaleY);
+			graphics.rotate(2 * Math.PI * angle / ANGLES);
+			if (skin == null) {
+				graphics.scale(1, -1);
+				graphics.fill(template);
+				continue;
+			}
+			// Without the flip of the ordinates, so that the skin is upright
+			graphics.translate(bounds.getMinX(), -bounds.getMaxY());
+			graphics.scale(bounds.getWidth() / skin.getWidth(),
+					bounds.getHeight() / skin.getHeight());
+			graphics.drawImage(skin, 0, 0, null);
+		}
+		graphics.setTransform(base);
+	}
+
+	private static int getLeft(Sprite sprite, int angle) {
+		return angle % COLUMNS * sprite.size;
+	}
+
+	private static int getTop(Sprite sprite, int angle) {
+		return sprite.top + angle / COLUMNS * sprite.size;
+	}
+
+	/**
+	 * Copy the cell of a template nearest to an angle, centered on the pixel
+	 * (x;y). Nothing is drawn if the atlas does not hold the template of the
+	 * type in the color of graphics at the scale of camera.
+	 *
+	 * @param graphics
+	 *            where to draw
+	 * @param camera
+	 *            of the frame
+	 * @param type
+	 *            of the element drawn
+	 * @param template
+	 *            outline in game units
+	 * @param x
+	 *            in pixels
+	 * @param y
+	 *            in pixels
+	 * @param angle
+	 *            in radians
+	 * @return True if the template was drawn
+	 */
+	boolean draw(Graphics2D graphics, Camera camera,
+			Class<? extends GameElement> type, Shape template, float x,
+			float y, float angle) {
+		Map<Shape, Sprite> typeSprites = sprites.get(type);
+		Sprite sprite = typeSprites == null ? null : typeSprites
+				.get(template);
+		if (sprite == null || camera.getScaleX() != scaleX
+				|| camera.getScaleY() != scaleY
+				|| !sprite.color.equals(graphics.getColor())) {
+			return false;
+		}
+		int cell = Math.floorMod(
+				Math.round(angle * ANGLES / (2 * (float) Math.PI)), ANGLES);
+		int left = getLeft(sprite, cell);
+		int top = getTop(sprite, cell);
+		int dx = Math.round(x) - sprite.size / 2;
+		int dy = Math.round(y) - sprite.size / 2;
+		graphics.drawImage(image, dx, dy, dx + sprite.size, dy + sprite.size,
+				left, top, left + sprite.size, top + sprite.size, null);
+		return true;
+	}
+
+	/**
+	 * Get the number of sprites in the atlas, one per template and element
+	 * type.
+	 *
+	 * @return number of sprites
+	 */
+	int size() {
+		return size;
+	}
+}
@@ -0,0 +1,139 @@
+package game;
+
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+
+/**
+ * Fill the templates of the elements (see {@link GameElement#getTemplate()})
+ * into a graphics, placing each one with a transformation reused from one
+ * element to the next. Elements write their pixel coordinates into
+ * {@link #getScreen()}, so that drawing a frame allocates nothing per
+ * element. Templates held by the atlas of the painter, if any, are copied
+ * from it instead of being filled.
+ */
+final class TemplatePainter {
+	/**
+	 * Transformation of the graphics when painting began
+	 */
+	private final AffineTransform base = new AffineTransform();
+	/**
+	 * Transformation of the template being filled
+	 */
+	private final AffineTransform transform = new AffineTransform();
+	/**
+	 * Pixel coordinates and angle of the element being drawn
+	 */
+	private final float[] screen = new float[3];
+	/**
+	 * Indexes of the elements in the view, see {@link #getVisible(int)}
+	 */
+	private int[] visible = new int[0];
+	/**
+	 * Templates already filled, null to fill each template
+	 */
+	private SpriteAtlas atlas;
+	private Graphics2D graphics;
+	private Camera camera;
+
+	/**
+	 * Start painting into graphics, whose transformation maps the pixels of
+	 * the camera to the pixels of the device.
+	 *
+	 * @param graphics
+	 *            where to paint
+	 * @param camera
+	 *            of the frame
+	 */
+	void begin(Graphics2D graphics, Camera camera) {
+		this.graphics = graphics;
+		this.camera = camera;
+		base.setTransform(graphics.getTransform());
+	}
+
+	/**
+	 * Set the atlas the templates are copied from.
+	 *
+	 * @param atlas
+	 *            of the templates, null to fill each template
+	 */
+	void setAtlas(SpriteAtlas atlas) {
+		this.atlas = atlas;
+	}
+
+	/**
+	 * Get the camera of the frame being painted.
+	 *
+	 * @return camera given to {@link #begin(Graphics2D, Camera)}
+	 */
+	Camera getCamera() {
+		return camera;
+	}
+
+	/**
+	 * Get the buffer where elements write their position before filling
+	 * their template: abscissa and ordinate in pixels, then angle.
+	 *
+	 * @return buffer of three values
+	 */
+	float[] getScreen() {
+		return screen;
+	}
+
+	/**
+	 * Get a buffer receiving the indexes of the elements in the view.
+	 *
+	 * @param capacity
+	 *            number of indexes needed
+	 * @return buffer of at least capacity values
+	 */
+	int[] getVisible(int capacity) {
+		if (visible.length < capacity) {
+			visible = new int[Math.max(capacity, visible.length * 2)];
+		}
+		return visible;
+	}
+
+	/**
+	 * Fill a template centered on the pixel (x;y) and rotated by angle.
+	 *
+	 * @param type
+	 *            of the element drawn, as types sharing a template may have
+	 *            different skins
+	 * @param template
+	 *            outline in game units
+	 * @param x
+	 *            in pixels
+	 * @param y
+	 *            in pixels
+	 * @param angle
+	 *            in radians
+	 */
+	void fill(Class<? extends GameElement> type, Shape template, float x,
+			float y, float angle) {
+		if (atlas != null) {
+			graphics.setTransform(base);
+			if (atlas.draw(graphics, camera, type, template, x, y, angle)) {
+				return;
+			}
+		}
+		transform.setTransform(base);
+		transform.translate(x, y);
+		transform.scale(camera.getScaleX(), camera.getScaleY());
+		if (angle != 0) {
+			transform.rotate(angle);
+		}
+		transform.scale(1, -1);
+		graphics.setTransform(transform);
+		graphics.fill(template);
+	}
+
+	/**
+	 * Stop painting and give the graphics its transformation back.
+	 */
+	void end() {
+		graphics.setTransform(base);
+		graphics = null;
+		camera = null;
+	}
+}
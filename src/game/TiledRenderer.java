@@ -0,0 +1,186 @@
+package game;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Composition of frames by several threads. The frame is split into
+ * horizontal tiles, each one composed by a worker of a {@link ForkJoinPool}:
+ * it copies its rows of the scene, then draws the bullets the grid of the
+ * snapshot returns for its rows, through a graphics clipped to them. All the
+ * workers write into the {@link DataBufferInt} of the frame, each into its
+ * own rows, so the result is the same as composing the frame on one thread.
+ */
+final class TiledRenderer {
+	/**
+	 * Minimum height of a tile in pixels
+	 */
+	private static final int MIN_TILE_HEIGHT = 32;
+	/**
+	 * Number of tiles per thread, so that threads done with a quick tile can
+	 * take another one while a slow tile is drawn
+	 */
+	private static final int TILES_PER_THREAD = 2;
+
+	private final ForkJoinPool pool;
+	/**
+	 * Painter of each tile, reused from one frame to the next
+	 */
+	private final TemplatePainter[] painters;
+	/**
+	 * Frame being composed, set by {@link #render} before the tiles are
+	 * handed to the workers
+	 */
+	private BufferedImage target;
+	private int[] pixels;
+	private int[] background;
+	private WorldSnapshot snapshot;
+	private Camera camera;
+	private float alpha;
+	private int tileHeight;
+
+	private TiledRenderer(int threads) {
+		pool = new ForkJoinPool(threads);
+		painters = new TemplatePainter[threads * TILES_PER_THREAD];
+		for (int i = 0; i < painters.length; i++) {
+			painters[i] = new TemplatePainter();
+		}
+	}
+
+	/**
+	 * Create a renderer using a number of threads.
+	 *
+	 * @param threads
+	 *            number of workers
+	 * @return new TiledRenderer
+	 */
+	static TiledRenderer create(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException(
+					"Number of threads must be positive.");
+		}
+		return new TiledRenderer(threads);
+	}
+
+	/**
+	 * Get the number of workers.
+	 *
+	 * @return number of threads
+	 */
+	int getThreads() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Stop the workers once the frame being composed, if any, is done.
+	 */
+	void close() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Compose a frame: the scene, then the bullets over it.
+	 *
+	 * @param target
+	 *            frame composed, of type {@link BufferedImage#TYPE_INT_RGB}
+	 * @param scene
+	 *            image of the static part of the round, of the same size and
+	 *            type
+	 * @param snapshot
+	 *            of the round
+	 * @param camera
+	 *            of the frame
+	 * @param alpha
+	 *            interpolation factor between the last two steps
+	 * @param atlas
+	 *            templates copied by the painters, null to fill them
+	 */
+	void render(BufferedImage target, BufferedImage scene,
+			WorldSnapshot snapshot, Camera camera, float alpha,
+			SpriteAtlas atlas) {
+		if (target.getType() != BufferedImage.TYPE_INT_RGB
+				|| scene.getType() != BufferedImage.TYPE_INT_RGB
+				|| target.getWidth() != scene.getWidth()
+				|| target.getHeight() != scene.getHeight()) {
+			throw new IllegalArgumentException(
+					"Frame and scene must be RGB images of the same size.");
+		}
+		this.target = target;
+		this.pixels = ((DataBufferInt) target.getRaster().getDataBuffer())
+				.getData();
+		this.background = ((DataBufferInt) scene.getRaster().getDataBuffer())
+				.getData();
+		this.snapshot = snapshot;
+		this.camera = camera;
+		this.alpha = alpha;
+		for (TemplatePainter painter : painters) {
+			painter.setAtlas(atlas);
+		}
+		int height = target.getHeight();
+		int tiles = Math.max(1,
+				Math.min(painters.length, height / MIN_TILE_HEIGHT));
+		tileHeight = (height + tiles - 1) / tiles;
+		try {
+			pool.invoke(new Tiles(0, tiles));
+		} finally {
+			this.target = null;
+			this.snapshot = null;
+		}
+	}
+
+	/**
+	 * Compose a tile.
+	 *
+	 * @param tile
+	 *            index of the tile, from the top
+	 */
+	private void drawTile(int tile) {
+		int width = target.getWidth();
+		int top = tile * tileHeight;
+		int bottom = Math.min(target.getHeight(), top + tileHeight);
+		if (top >= bottom) {
+			return;
+		}
+		System.arraycopy(background, top * width, pixels, top * width,
+				(bottom - top) * width);
+		Graphics2D graphics = target.getSubimage(0, top, width, bottom - top)
+				.createGraphics();
+		try {
+			graphics.translate(0, -top);
+			graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+					RenderingHints.VALUE_ANTIALIAS_ON);
+			Graphics.drawBullets(graphics, snapshot, painters[tile], camera,
+					alpha, camera.toGameY(bottom), camera.toGameY(top));
+		} finally {
+			graphics.dispose();
+		}
+	}
+
+	/**
+	 * Range of tiles, split in halves until there is one tile per task
+	 */
+	private final class Tiles extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int first;
+		private final int last;
+
+		Tiles(int first, int last) {
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected void compute() {
+			if (last - first == 1) {
+				drawTile(first);
+				return;
+			}
+			int middle = (first + last) >>> 1;
+			invokeAll(new Tiles(first, middle), new Tiles(middle, last));
+		}
+	}
+}
@@ -0,0 +1,238 @@
+package game;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import jdk.jfr.ValueDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Convert a flight recording into a timeline in the Trace Event Format, as
+ * opened by chrome://tracing or Perfetto. The events of the game
+ * ({@link FlightEvents}) are put on the timeline of the thread which
+ * recorded them, and the garbage collections on a timeline of their own, so
+ * that a late frame can be matched with the steps and collections around
+ * it.
+ */
+public final class TimelineExport {
+	/**
+	 * Prefix of the names of the events of the game
+	 */
+	private static final String GAME_EVENTS = "game.";
+	private static final String GC_EVENT = "jdk.GarbageCollection";
+	/**
+	 * Thread id given to the garbage collections
+	 */
+	private static final long GC_THREAD = 0;
+	/**
+	 * Fields of the events not written as arguments
+	 */
+	private static final List<String> SKIPPED_FIELDS = Arrays.asList(
+			"startTime", "duration", "eventThread", "stackTrace");
+
+	private TimelineExport() {
+	}
+
+	/**
+	 * Convert a recording into a timeline.
+	 *
+	 * @param recording
+	 *            path of the flight recording
+	 * @param timeline
+	 *            path of the JSON file written
+	 * @return number of events written
+	 * @throws IOException
+	 *             if the recording cannot be read or the timeline written
+	 */
+	public static int export(Path recording, Path timeline) throws IOException {
+		ArrayList<RecordedEvent> events = new ArrayList<>();
+		for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+			String name = event.getEventType().getName();
+			if (name.startsWith(GAME_EVENTS) || name.equals(GC_EVENT)) {
+				events.add(event);
+			}
+		}
+		events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+		try (Writer out = Files.newBufferedWriter(timeline,
+				StandardCharsets.UTF_8)) {
+			write(events, out);
+		}
+		return events.size();
+	}
+
+	/**
+	 * Write events, sorted by start, in the Trace Event Format.
+	 *
+	 * @param events
+	 *            to write
+	 * @param out
+	 *            where the JSON is written
+	 * @throws IOException
+	 *             if out cannot be written
+	 */
+	private static void write(List<RecordedEvent> events, Writer out)
+			throws IOException {
+		Instant origin = events.isEmpty() ? Instant.EPOCH : events.get(0)
+				.getStartTime();
+		LinkedHashMap<Long, String> threads = new LinkedHashMap<>();
+		StringBuilder builder = new StringBuilder();
+		out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+		boolean first = true;
+		for (RecordedEvent event : events) {
+			long thread = GC_THREAD;
+			RecordedThread recorded = event.getThread();
+			if (recorded != null && !event.getEventType().getName()
+					.equals(GC_EVENT)) {
+				thread = recorded.getJavaThreadId();
+				threads.putIfAbsent(thread, recorded.getJavaName());
+			} else {
+				threads.putIfAbsent(GC_THREAD, "GC");
+			}
+			builder.setLength(0);
+			if (!first) {
+				builder.append(",\n");
+			}
+			first = false;
+			appendEvent(builder, event, thread, origin);
+			out.write(builder.toString());
+		}
+		for (Map.Entry<Long, String> thread : threads.entrySet()) {
+			builder.setLength(0);
+			if (!first) {
+				builder.append(",\n");
+			}
+			first = false;
+			builder.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":")
+					.append(thread.getKey()).append(",\"args\":{\"name\":");
+			appendString(builder, thread.getValue());
+			builder.append("}}");
+			out.write(builder.toString());
+		}
+		out.write("\n]}\n");
+	}
+
+	/**
+	 * Append an event: a complete event ("X") if it has a duration, an
+	 * instant one ("i") otherwise.
+	 *
+	 * @param builder
+	 *            where the JSON is appended
+	 * @param event
+	 *            to append
+	 * @param thread
+	 *            id of its timeline
+	 * @param origin
+	 *            time of the first event
+	 */
+	private static void appendEvent(StringBuilder builder,
+			RecordedEvent event, long thread, Instant origin) {
+		String name = event.getEventType().getName();
+		Duration duration = event.getDuration();
+		builder.append("{\"name\":");
+		appendString(builder, name.startsWith(GAME_EVENTS) ? name
+				.substring(GAME_EVENTS.length()) : event.getString("name"));
+		builder.append(",\"cat\":");
+		appendString(builder, name.startsWith(GAME_EVENTS) ? "game" : "gc");
+		builder.append(",\"ph\":\"").append(duration.isZero() ? 'i' : 'X')
+				.append("\",\"ts\":")
+				.append(toMicros(Duration.between(origin, event.getStartTime())));
+		if (duration.isZero()) {
+			builder.append(",\"s\":\"t\"");
+		} else {
+			builder.append(",\"dur\":").append(toMicros(duration));
+		}
+		builder.append(",\"pid\":1,\"tid\":").append(thread)
+				.append(",\"args\":{");
+		boolean first = true;
+		for (ValueDescriptor field : event.getFields()) {
+			if (SKIPPED_FIELDS.contains(field.getName())) {
+				continue;
+			}
+			Object value = event.getValue(field.getName());
+			if (value == null) {
+				continue;
+			}
+			if (!first) {
+				builder.append(',');
+			}
+			first = false;
+			appendString(builder, field.getName());
+			builder.append(':');
+			if (value instanceof Number || value instanceof Boolean) {
+				builder.append(value);
+			} else if (value instanceof Duration) {
+				builder.append(toMicros((Duration) value));
+			} else {
+				appendString(builder, value.toString());
+			}
+		}
+		builder.append("}}");
+	}
+
+	/**
+	 * Convert a duration into microseconds, the unit of the format.
+	 *
+	 * @param duration
+	 *            to convert
+	 * @return microseconds, with three decimals
+	 */
+	private static String toMicros(Duration duration) {
+		long nanos = duration.getSeconds() * 1_000_000_000L + duration.getNano();
+		return String.format(Locale.ROOT, "%.3f", nanos / 1e3);
+	}
+
+	/**
+	 * Append a JSON string.
+	 *
+	 * @param builder
+	 *            where the string is appended
+	 * @param value
+	 *            to append, escaped
+	 */
+	private static void appendString(StringBuilder builder, String value) {
+		builder.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				builder.append('\\').append(c);
+			} else if (c < 0x20) {
+				builder.append(String.format("\\u%04x", (int) c));
+			} else {
+				builder.append(c);
+			}
+		}
+		builder.append('"');
+	}
+
+	/**
+	 * Convert a flight recording into a timeline.
+	 *
+	 * @param args
+	 *            path of the recording, then path of the timeline
+	 * @throws IOException
+	 *             if the recording cannot be read or the timeline written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: TimelineExport <recording.jfr> <timeline.json>");
+			return;
+		}
+		int count = export(Paths.get(args[0]), Paths.get(args[1]));
+		System.out.println(count + " events written to " + args[1]);
+	}
+}
@@ -0,0 +1,393 @@
+package game;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import org.jbox2d.common.Vec2;
+
+/**
+ * Record the trajectories of the bullets of a round, after each step, into
+ * off-heap columns: x, y and angle quantized on two bytes each, and the
+ * flags of {@link WorldSnapshot} on one byte, that is 7 bytes per bullet and
+ * per step. In each column, the values of a step follow those of the
+ * previous step, bullets in launch order.
+ *
+ * The raw export is a 32 bytes header ({@link #MAGIC}, {@link #VERSION},
+ * number of bullets, number of steps, first step, width and height of the
+ * area) followed by the four columns, and can be mapped back by
+ * {@link #load(String)}.
+ */
+public final class TrajectoryRecorder implements RoundListener {
+	static final int MAGIC = 0x53544b54;
+	static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+	private static final float TWO_PI = (float) (2 * Math.PI);
+	/**
+	 * Number of quantized values of a coordinate or an angle
+	 */
+	private static final int LEVELS = 0xFFFF;
+
+	/**
+	 * Round recorded, null if loaded from a file
+	 */
+	private Round round;
+	/**
+	 * Bullets of the round, in launch order
+	 */
+	private Bullet[] bullets;
+	private int bulletCount;
+	private float width;
+	private float height;
+	/**
+	 * Number of the step of the first record
+	 */
+	private long firstStep;
+	/**
+	 * Number of steps recorded
+	 */
+	private int steps = 0;
+	/**
+	 * Number of steps the columns can hold
+	 */
+	private int capacity;
+	private ByteBuffer xs;
+	private ByteBuffer ys;
+	private ByteBuffer angles;
+	private ByteBuffer flags;
+	private final boolean readOnly;
+
+	private TrajectoryRecorder(int capacity, boolean readOnly) {
+		this.capacity = capacity;
+		this.readOnly = readOnly;
+	}
+
+	/**
+	 * Create a recorder, to add as listener of a round before it starts.
+	 *
+	 * @param capacity
+	 *            number of steps the columns hold before they grow
+	 * @return new TrajectoryRecorder
+	 */
+	public static TrajectoryRecorder create(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException(
+					"Capacity must be positive.");
+		}
+		return new TrajectoryRecorder(capacity, false);
+	}
+
+	/**
+	 * Record the trajectories of the bullets of a round.
+	 *
+	 * @param round
+	 *            to record, not started
+	 * @return new TrajectoryRecorder, listening to round
+	 */
+	public static TrajectoryRecorder record(Round round) {
+		if (round.isStarted()) {
+			throw new IllegalStateException("Round already started.");
+		}
+		TrajectoryRecorder recorder = create(1024);
+		round.addListener(recorder);
+		return recorder;
+	}
+
+	/**
+	 * Map trajectories exported by {@link #exportRaw(String)}.
+	 *
+	 * @param path
+	 *            of the file
+	 * @return read-only TrajectoryRecorder
+	 * @throws IOException
+	 *             if the file cannot be read or is not a trajectory
+	 */
+	public static TrajectoryRecorder load(String path) throws IOException {
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(
+				Paths.get(Objects.requireNonNull(path)),
+				StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		}
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC
+				|| buffer.getInt(4) != VERSION) {
+			throw new IOException("Not a trajectory.");
+		}
+		TrajectoryRecorder recorder = new TrajectoryRecorder(
+				buffer.getInt(12), true);
+		recorder.bulletCount = buffer.getInt(8);
+		recorder.steps = recorder.capacity;
+		recorder.firstStep = buffer.getLong(16);
+		recorder.width = buffer.getFloat(24);
+		recorder.height = buffer.getFloat(28);
+		long size = (long) recorder.steps * recorder.bulletCount;
+		if (recorder.steps < 0 || recorder.bulletCount < 0
+				|| size > Integer.MAX_VALUE
+				|| buffer.limit() != HEADER_SIZE + size * 7) {
+			throw new IOException("Truncated trajectory.");
+		}
+		int values = (int) size;
+		recorder.xs = slice(buffer, HEADER_SIZE, values * 2);
+		recorder.ys = slice(buffer, HEADER_SIZE + values * 2, values * 2);
+		recorder.angles = slice(buffer, HEADER_SIZE + values * 4, values * 2);
+		recorder.flags = slice(buffer, HEADER_SIZE + values * 6, values);
+		return recorder;
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer slice = buffer.duplicate();
+		slice.position(offset).limit(offset + length);
+		return slice.slice();
+	}
+
+	@Override
+	public void onStep(Round round) {
+		if (readOnly) {
+			throw new IllegalStateException("Trajectory is read-only.");
+		}
+		if (this.round == null) {
+			start(round);
+		} else if (this.round != round) {
+			throw new IllegalStateException(
+					"Recorder already used by another round.");
+		}
+		if (steps == capacity) {
+			grow();
+		}
+		int offset = steps * bulletCount;
+		for (int i = 0; i < bulletCount; i++) {
+			Bullet bullet = bullets[i];
+			Vec2 position = bullet.getPosition();
+			int at = offset + i;
+			xs.putShort(at * 2, quantize(position.x / width));
+			ys.putShort(at * 2, quantize(position.y / height));
+			float angle = bullet.getAngle() % TWO_PI;
+			if (angle < 0) {
+				angle += TWO_PI;
+			}
+			angles.putShort(at * 2, quantize(angle / TWO_PI));
+			flags.put(at, (byte) bullet.getStateFlags());
+		}
+		steps++;
+	}
+
+	/**
+	 * Allocate the columns for the bullets of the round, on its first step.
+	 *
+	 * @param round
+	 *            recorded
+	 */
+	private void start(Round round) {
+		this.round = round;
+		bullets = round.getBullets().toArray(new Bullet[0]);
+		bulletCount = bullets.length;
+		width = round.getWidth();
+		height = round.getHeight();
+		firstStep = round.getStepCount();
+		int values = capacity * bulletCount;
+		xs = ByteBuffer.allocateDirect(values * 2);
+		ys = ByteBuffer.allocateDirect(values * 2);
+		angles = ByteBuffer.allocateDirect(values * 2);
+		flags = ByteBuffer.allocateDirect(values);
+	}
+
+	/**
+	 * Double the capacity of the columns.
+	 */
+	private void grow() {
+		capacity *= 2;
+		xs = grow(xs);
+		ys = grow(ys);
+		angles = grow(angles);
+		flags = grow(flags);
+	}
+
+	private static ByteBuffer grow(ByteBuffer column) {
+		ByteBuffer grown = ByteBuffer.allocateDirect(column.capacity() * 2);
+		ByteBuffer old = column.duplicate();
+		old.clear();
+		grown.put(old);
+		grown.clear();
+		return grown;
+	}
+
+	/**
+	 * Quantize a value between 0 and 1 on two bytes.
+	 *
+	 * @param value
+	 *            to quantize, clamped between 0 and 1
+	 * @return quantized value
+	 */
+	private static short quantize(float value) {
+		if (value <= 0) {
+			return 0;
+		}
+		if (value >= 1) {
+			return (short) LEVELS;
+		}
+		return (short) Math.round(value * LEVELS);
+	}
+
+	private static float unquantize(short value) {
+		return (float) (value & 0xFFFF) / LEVELS;
+	}
+
+	/**
+	 * Get the number of bullets recorded.
+	 *
+	 * @return number of bullets
+	 */
+	public int getBulletCount() {
+		return bulletCount;
+	}
+
+	/**
+	 * Get the number of steps recorded.
+	 *
+	 * @return number of steps
+	 */
+	public int getStepCount() {
+		return steps;
+	}
+
+	/**
+	 * Get the number, in the round, of the first step recorded.
+	 *
+	 * @return number of the step
+	 */
+	public long getFirstStep() {
+		return firstStep;
+	}
+
+	/**
+	 * Get the x coordinate of a bullet.
+	 *
+	 * @param step
+	 *            index of the step, from 0 to {@link #getStepCount()}
+	 *            excluded
+	 * @param bullet
+	 *            index of the bullet, in launch order
+	 * @return x coordinate in game units
+	 */
+	public float getX(int step, int bullet) {
+		return unquantize(xs.getShort(index(step, bullet) * 2)) * width;
+	}
+
+	/**
+	 * Get the y coordinate of a bullet.
+	 *
+	 * @param step
+	 *            index of the step
+	 * @param bullet
+	 *            index of the bullet, in launch order
+	 * @return y coordinate in game units
+	 */
+	public float getY(int step, int bullet) {
+		return unquantize(ys.getShort(index(step, bullet) * 2)) * height;
+	}
+
+	/**
+	 * Get the angle of a bullet.
+	 *
+	 * @param step
+	 *            index of the step
+	 * @param bullet
+	 *            index of the bullet, in launch order
+	 * @return angle in radians, between 0 and 2 PI
+	 */
+	public float getAngle(int step, int bullet) {
+		return unquantize(angles.getShort(index(step, bullet) * 2)) * TWO_PI;
+	}
+
+	/**
+	 * Get the flags of a bullet.
+	 *
+	 * @param step
+	 *            index of the step
+	 * @param bullet
+	 *            index of the bullet, in launch order
+	 * @return combination of {@link WorldSnapshot#ACTIVE} and
+	 *         {@link WorldSnapshot#STOPPED}
+	 */
+	public int getFlags(int step, int bullet) {
+		return flags.get(index(step, bullet));
+	}
+
+	private int index(int step, int bullet) {
+		if (step < 0 || step >= steps || bullet < 0 || bullet >= bulletCount) {
+			throw new IndexOutOfBoundsException();
+		}
+		return step * bulletCount + bullet;
+	}
+
+	/**
+	 * Export the trajectories as CSV: one line per bullet and per step.
+	 *
+	 * @param path
+	 *            of the file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public void exportCsv(String path) throws IOException {
+		try (Writer out = new BufferedWriter(new FileWriter(
+				Objects.requireNonNull(path)))) {
+			out.write("step,bullet,x,y,angle,flags\n");
+			StringBuilder line = new StringBuilder();
+			for (int step = 0; step < steps; step++) {
+				for (int bullet = 0; bullet < bulletCount; bullet++) {
+					line.setLength(0);
+					line.append(firstStep + step).append(',').append(bullet)
+							.append(',').append(getX(step, bullet))
+							.append(',').append(getY(step, bullet))
+							.append(',').append(getAngle(step, bullet))
+							.append(',').append(getFlags(step, bullet))
+							.append('\n');
+					out.append(line);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Export the trajectories in the raw format read by
+	 * {@link #load(String)}.
+	 *
+	 * @param path
+	 *            of the file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public void exportRaw(String path) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION).putInt(bulletCount)
+				.putInt(steps).putLong(firstStep).putFloat(width)
+				.putFloat(height).flip();
+		int values = steps * bulletCount;
+		try (FileChannel channel = FileChannel.open(
+				Paths.get(Objects.requireNonNull(path)),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeFully(channel, header);
+			if (values > 0) {
+				writeFully(channel, slice(xs, 0, values * 2));
+				writeFully(channel, slice(ys, 0, values * 2));
+				writeFully(channel, slice(angles, 0, values * 2));
+				writeFully(channel, slice(flags, 0, values));
+			}
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer)
+			throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package game;
+
+import java.util.Arrays;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+
+/**
+ * Changes of the bodies of a world, queued while the contacts of a step are
+ * dispatched and applied together afterwards. Only the thread which called
+ * {@link #defer()} queues its changes; other threads apply theirs directly.
+ */
+final class WorldCommands {
+	private static final byte SET_ACTIVE = 0;
+	private static final byte SET_VELOCITY = 1;
+
+	/**
+	 * Thread whose changes are queued, null if none
+	 */
+	private Thread owner;
+	private int size = 0;
+	private byte[] operations = new byte[16];
+	private Body[] bodies = new Body[16];
+	private float[] xs = new float[16];
+	private float[] ys = new float[16];
+	/**
+	 * Reused to give velocities to bodies
+	 */
+	private final Vec2 velocity = new Vec2();
+
+	/**
+	 * Queue the changes made by current thread until {@link #apply()}.
+	 */
+	void defer() {
+		owner = Thread.currentThread();
+	}
+
+	/**
+	 * Check if the changes made by current thread must be queued.
+	 *
+	 * @return True if changes are queued
+	 */
+	boolean isDeferring() {
+		return owner == Thread.currentThread();
+	}
+
+	/**
+	 * Queue the activation or deactivation of a body.
+	 *
+	 * @param body
+	 *            to change
+	 * @param active
+	 *            True to enable body
+	 */
+	void setActive(Body body, boolean active) {
+		int i = add(SET_ACTIVE, body);
+		xs[i] = active ? 1 : 0;
+	}
+
+	/**
+	 * Queue the change of the velocity of a body.
+	 *
+	 * @param body
+	 *            to change
+	 * @param x
+	 *            of the velocity
+	 * @param y
+	 *            of the velocity
+	 */
+	void setLinearVelocity(Body body, float x, float y) {
+		int i = add(SET_VELOCITY, body);
+		xs[i] = x;
+		ys[i] = y;
+	}
+
+	private int add(byte operation, Body body) {
+		if (size == operations.length) {
+			int capacity = size * 2;
+			operations = Arrays.copyOf(operations, capacity);
+			bodies = Arrays.copyOf(bodies, capacity);
+			xs = Arrays.copyOf(xs, capacity);
+			ys = Arrays.copyOf(ys, capacity);
+		}
+		operations[size] = operation;
+		bodies[size] = body;
+		return size++;
+	}
+
+	/**
+	 * Stop queuing and apply the queued changes in order.
+	 */
+	void apply() {
+		owner = null;
+		for (int i = 0; i < size; i++) {
+			Body body = bodies[i];
+			switch (operations[i]) {
+			case SET_ACTIVE:
+				body.setActive(xs[i] != 0);
+				break;
+			case SET_VELOCITY:
+				body.setLinearVelocity(velocity.set(xs[i], ys[i]));
+				break;
+			default:
+				throw new IllegalStateException("Unknown command.");
+			}
+			bodies[i] = null;
+		}
+		size = 0;
+	}
+}
@@ -0,0 +1,208 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * State of the elements of a round after a step, stored in primitive arrays.
+ * A snapshot is filled by the physics thread and never changes once it has
+ * been handed to a reader by {@link SnapshotBuffer}.
+ */
+public final class WorldSnapshot {
+	/**
+	 * Flag of an active element
+	 */
+	public static final int ACTIVE = 1;
+	/**
+	 * Flag of a stopped bullet
+	 */
+	public static final int STOPPED = 2;
+	/**
+	 * Flag of a full goal
+	 */
+	public static final int FULL = 4;
+
+	long step;
+	int sceneVersion;
+	/**
+	 * Changed each time an element moved or changed state
+	 */
+	int version;
+	/**
+	 * True if an element moved during the step
+	 */
+	boolean moving;
+	int size;
+	GameElement[] elements = new GameElement[0];
+	float[] x = new float[0];
+	float[] y = new float[0];
+	float[] angle = new float[0];
+	float[] previousX = new float[0];
+	float[] previousY = new float[0];
+	float[] previousAngle = new float[0];
+	int[] flags = new int[0];
+	/**
+	 * Bullets drawn, by cell
+	 */
+	final SpatialGrid bullets = new SpatialGrid();
+	/**
+	 * Launchers and goals, by cell, built for {@link #staticVersion}
+	 */
+	final SpatialGrid statics = new SpatialGrid();
+	int staticVersion = -1;
+
+	WorldSnapshot() {
+	}
+
+	/**
+	 * Make sure the arrays can hold capacity elements.
+	 *
+	 * @param capacity
+	 *            number of elements
+	 */
+	void ensureCapacity(int capacity) {
+		if (x.length >= capacity) {
+			return;
+		}
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		angle = Arrays.copyOf(angle, capacity);
+		previousX = Arrays.copyOf(previousX, capacity);
+		previousY = Arrays.copyOf(previousY, capacity);
+		previousAngle = Arrays.copyOf(previousAngle, capacity);
+		flags = Arrays.copyOf(flags, capacity);
+	}
+
+	/**
+	 * Get the number of the step which produced this snapshot.
+	 *
+	 * @return step number, 0 before the first step
+	 */
+	public long getStep() {
+		return step;
+	}
+
+	/**
+	 * Get the version of the static part of the round when the snapshot was
+	 * taken.
+	 *
+	 * @return version of the static part
+	 * @see Round#getSceneVersion()
+	 */
+	public int getSceneVersion() {
+		return sceneVersion;
+	}
+
+	/**
+	 * Get the version of the drawn state of the elements: two snapshots of
+	 * a round with the same version have the same positions and flags.
+	 *
+	 * @return version of the elements
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Check if an element moved during the step. Otherwise the previous
+	 * and current positions are the same, and interpolating between them
+	 * gives the same result whatever the factor.
+	 *
+	 * @return True if an element moved
+	 */
+	public boolean isMoving() {
+		return moving;
+	}
+
+	/**
+	 * Get the grid of the bullets drawn: launched or stopped.
+	 *
+	 * @return grid of the bullets
+	 */
+	SpatialGrid getBulletGrid() {
+		return bullets;
+	}
+
+	/**
+	 * Get the grid of the launchers and goals.
+	 *
+	 * @return grid of the static elements
+	 */
+	SpatialGrid getStaticGrid() {
+		return statics;
+	}
+
+	/**
+	 * Get the number of elements in the snapshot.
+	 *
+	 * @return number of elements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get an element of the snapshot.
+	 *
+	 * @param index
+	 *            of the element
+	 * @return element
+	 */
+	public GameElement getElement(int index) {
+		return elements[index];
+	}
+
+	/**
+	 * Get the x coordinate of an element, between the previous step (alpha =
+	 * 0) and this one (alpha = 1).
+	 *
+	 * @param index
+	 *            of the element
+	 * @param alpha
+	 *            interpolation factor
+	 * @return x coordinate in game units
+	 */
+	public float getX(int index, float alpha) {
+		return previousX[index] + (x[index] - previousX[index]) * alpha;
+	}
+
+	/**
+	 * Get the y coordinate of an element, between the previous step (alpha =
+	 * 0) and this one (alpha = 1).
+	 *
+	 * @param index
+	 *            of the element
+	 * @param alpha
+	 *            interpolation factor
+	 * @return y coordinate in game units
+	 */
+	public float getY(int index, float alpha) {
+		return previousY[index] + (y[index] - previousY[index]) * alpha;
+	}
+
+	/**
+	 * Get the angle of an element, between the previous step (alpha = 0) and
+	 * this one (alpha = 1).
+	 *
+	 * @param index
+	 *            of the element
+	 * @param alpha
+	 *            interpolation factor
+	 * @return angle in radians
+	 */
+	public float getAngle(int index, float alpha) {
+		return previousAngle[index] + (angle[index] - previousAngle[index])
+				* alpha;
+	}
+
+	/**
+	 * Get the flags of an element.
+	 *
+	 * @param index
+	 *            of the element
+	 * @return combination of {@link #ACTIVE}, {@link #STOPPED} and
+	 *         {@link #FULL}
+	 */
+	public int getFlags(int index) {
+		return flags[index];
+	}
+}
@@ -0,0 +1,127 @@
+package test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import game.AttachedWorlds;
+import game.BatchSimulation;
+import game.BatchStatistics;
+import game.Bullet;
+import game.Cat;
+import game.Goal;
+import game.HeadlessRunner;
+import game.Levels;
+import game.Outcome;
+import game.Round;
+import game.RoundConfig;
+import game.RunReport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jbox2d.common.Vec2;
+
+import org.junit.Test;
+
+public class BatchSimulationTest {
+	private static final long MAX_STEPS = 2000;
+
+	private static List<RoundConfig> getConfigs() {
+		List<Class<? extends Bullet>> bullets = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			bullets.add(Cat.class);
+		}
+		// Won with one goal, lost with a second goal out of reach
+		RoundConfig won = RoundConfig.create(40, 40, new Vec2(20, 20),
+				new Vec2(1, 1), bullets,
+				Collections.singletonList(new Vec2(35, 35)), 0);
+		RoundConfig lost = RoundConfig.create(40, 40, new Vec2(20, 20),
+				new Vec2(1, 1), bullets,
+				Arrays.asList(new Vec2(35, 35), new Vec2(5, 35)), 0);
+		ArrayList<RoundConfig> configs = new ArrayList<>();
+		for (int seed = 0; seed < 4; seed++) {
+			configs.add(Levels.getDefaultConfig(seed));
+			configs.add(won.withSeed(seed));
+			configs.add(lost.withSeed(seed));
+		}
+		return configs;
+	}
+
+	private static BatchStatistics run(int parallelism,
+			List<RoundConfig> configs) {
+		BatchSimulation simulation = BatchSimulation.create(parallelism,
+				MAX_STEPS);
+		try {
+			return simulation.run(configs);
+		} finally {
+			simulation.shutdown();
+		}
+	}
+
+	@Test
+	public void testStatistics() throws Exception {
+		List<RoundConfig> configs = getConfigs();
+		long victories = 0;
+		long defeats = 0;
+		long resolvedSteps = 0;
+		long steps = 0;
+		long contacts = 0;
+		long[] goalHits = new long[2];
+		for (RoundConfig config : configs) {
+			Round round = config.createRound();
+			RunReport report = HeadlessRunner.run(round, MAX_STEPS);
+			steps += report.getSteps();
+			contacts += report.getContacts();
+			if (report.getOutcome() == Outcome.VICTORY) {
+				victories++;
+				resolvedSteps += report.getSteps();
+			} else if (report.getOutcome() == Outcome.DEFEAT) {
+				defeats++;
+				resolvedSteps += report.getSteps();
+			}
+			int i = 0;
+			for (Goal goal : round.getGoals()) {
+				if (goal.isFull()) {
+					goalHits[i]++;
+				}
+				i++;
+			}
+		}
+		assertTrue(victories > 0);
+		assertTrue(defeats > 0);
+		BatchStatistics parallel = run(4, configs);
+		BatchStatistics sequential = run(1, configs);
+		for (BatchStatistics statistics : Arrays.asList(parallel, sequential)) {
+			assertEquals(configs.size(), statistics.getRuns());
+			assertEquals(victories, statistics.getVictories());
+			assertEquals(defeats, statistics.getDefeats());
+			assertEquals((double) victories / configs.size(),
+					statistics.getVictoryRate(), 1e-9);
+			assertEquals((double) resolvedSteps / (victories + defeats),
+					statistics.getMeanStepsToResolution(), 1e-9);
+			assertEquals(steps, statistics.getSteps());
+			assertEquals(contacts, statistics.getContacts());
+			assertArrayEquals(goalHits, statistics.getGoalHits());
+		}
+		assertEquals(sequential.toString(), parallel.toString());
+	}
+
+	@Test
+	public void testWorldsReleased() throws Exception {
+		int before = AttachedWorlds.settle();
+		ArrayList<RoundConfig> configs = new ArrayList<>();
+		for (int seed = 0; seed < 200; seed++) {
+			configs.add(Levels.getDefaultConfig(seed));
+		}
+		BatchSimulation simulation = BatchSimulation.create(2, 500);
+		try {
+			BatchStatistics statistics = simulation.run(configs);
+			assertEquals(200, statistics.getRuns());
+		} finally {
+			simulation.shutdown();
+		}
+		assertTrue(AttachedWorlds.awaitAtMost(before));
+	}
+}
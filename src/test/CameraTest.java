@@ -0,0 +1,86 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import game.Camera;
+import game.Goal;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.World;
+import org.junit.Test;
+
+public class CameraTest {
+	@Test
+	public void testFit() {
+		Camera camera = Camera.create();
+		camera.fit(5, 4, 800, 800);
+		assertEquals(0, camera.toScreenX(0), 1e-3);
+		assertEquals(800, camera.toScreenX(5), 1e-3);
+		assertEquals(800, camera.toScreenY(0), 1e-3);
+		assertEquals(0, camera.toScreenY(4), 1e-3);
+		assertEquals(160, camera.getScaleX(), 1e-3);
+		assertEquals(200, camera.getScaleY(), 1e-3);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFitEmpty() {
+		Camera.create().fit(0, 4, 800, 800);
+	}
+
+	@Test
+	public void testVersion() {
+		Camera camera = Camera.create();
+		camera.fit(5, 5, 800, 800);
+		int version = camera.getVersion();
+		camera.fit(5, 5, 800, 800);
+		assertEquals(version, camera.getVersion());
+		camera.fit(6, 5, 800, 800);
+		assertNotEquals(version, camera.getVersion());
+	}
+
+	@Test
+	public void testZoom() {
+		Camera camera = Camera.create();
+		camera.fit(10, 8, 800, 800);
+		camera.zoom(2);
+		assertEquals(2, camera.getZoom(), 1e-3);
+		assertEquals(2.5, camera.getMinX(), 1e-3);
+		assertEquals(7.5, camera.getMaxX(), 1e-3);
+		assertEquals(2, camera.getMinY(), 1e-3);
+		assertEquals(6, camera.getMaxY(), 1e-3);
+		camera.zoom(1 / 4f);
+		assertEquals(1, camera.getZoom(), 1e-3);
+		assertEquals(0, camera.getMinX(), 1e-3);
+		assertEquals(10, camera.getMaxX(), 1e-3);
+	}
+
+	@Test
+	public void testPan() {
+		Camera camera = Camera.create();
+		camera.fit(10, 10, 800, 800);
+		int version = camera.getVersion();
+		camera.pan(100, 0);
+		assertEquals(version, camera.getVersion());
+		camera.zoom(2);
+		camera.pan(160, -80);
+		assertEquals(3.5, camera.getMinX(), 1e-3);
+		assertEquals(3, camera.getMinY(), 1e-3);
+		camera.pan(10000, 10000);
+		assertEquals(10, camera.getMaxX(), 1e-3);
+		assertEquals(0, camera.getMinY(), 1e-3);
+		camera.reset();
+		assertEquals(0, camera.getMinX(), 1e-3);
+		assertEquals(10, camera.getMaxY(), 1e-3);
+	}
+
+	@Test
+	public void testScreenPosition() {
+		Camera camera = Camera.create();
+		camera.fit(5, 5, 800, 800);
+		Goal goal = Goal.create(new World(new Vec2(0, 0)), new Vec2(2, 3));
+		float[] screen = new float[4];
+		goal.getScreenPosition(camera, screen, 2);
+		assertEquals(320, screen[2], 1e-3);
+		assertEquals(320, screen[3], 1e-3);
+	}
+}
@@ -0,0 +1,89 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import game.AttachedWorlds;
+import game.Campaign;
+import game.LevelPack;
+import game.Levels;
+import game.Round;
+import game.RoundConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CampaignTest {
+	@Test
+	public void testNext() throws IOException {
+		try (Campaign campaign = Campaign.create(Arrays.asList(
+				Levels.getDefaultConfig(0),
+				Levels.parse("size 7 5\nlauncher 1 1 1 0 Cat*2\ngoal 6 4\n")),
+				1)) {
+			assertTrue(campaign.hasNext());
+			Round first = campaign.next();
+			assertEquals(0, campaign.getLevel());
+			assertFalse(first.isStarted());
+			assertEquals(5, first.getWidth(), 0);
+			Round second = campaign.next();
+			assertEquals(1, campaign.getLevel());
+			assertEquals(7, second.getWidth(), 0);
+			assertFalse(campaign.hasNext());
+		}
+	}
+
+	@Test
+	public void testRetry() throws IOException {
+		try (Campaign campaign = Campaign.create(
+				Arrays.asList(Levels.getDefaultConfig(0)), 1)) {
+			Round round = campaign.next();
+			Round again = campaign.retry();
+			assertNotSame(round, again);
+			assertEquals(again, campaign.getCurrent());
+			assertEquals(0, campaign.getLevel());
+		}
+	}
+
+	@Test
+	public void testRoundsReleased() throws Exception {
+		int before = AttachedWorlds.settle();
+		ArrayList<RoundConfig> levels = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			levels.add(Levels.getDefaultConfig(i));
+		}
+		try (Campaign campaign = Campaign.create(levels, 1)) {
+			while (campaign.hasNext()) {
+				campaign.next();
+				campaign.retry();
+			}
+			// Current round, and at most its other round being created
+			assertTrue(AttachedWorlds.awaitAtMost(before + 2));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testNoMoreLevel() throws IOException {
+		try (Campaign campaign = Campaign.create(
+				Arrays.asList(Levels.getDefaultConfig(0)), 1)) {
+			campaign.next();
+			campaign.next();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testMalformedLevel() throws IOException {
+		File file = File.createTempFile("levels", ".pack");
+		file.deleteOnExit();
+		LevelPack.write(file.getPath(),
+				Arrays.asList("size 5 5\nlauncher 1 1 1 0 Dog\n"));
+		try (Campaign campaign = Campaign.create(
+				LevelPack.open(file.getPath()), 0, 1)) {
+			campaign.next();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import game.EventKind;
+import game.EventLog;
+import game.LogLevel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class EventLogTest {
+	@Test
+	public void testClose() throws Exception {
+		File file = File.createTempFile("events", ".log");
+		file.deleteOnExit();
+		EventLog log = EventLog.create(16, LogLevel.DEBUG, file.getPath());
+		for (int step = 0; step < 10; step++) {
+			assertTrue(log.record(EventKind.BEGIN_CONTACT, step, 1, 2));
+		}
+		log.close();
+		assertTrue(log.isClosed());
+		assertFalse(log.record(EventKind.BEGIN_CONTACT, 10, 1, 2));
+		List<String> lines = Files.readAllLines(file.toPath(),
+				StandardCharsets.UTF_8);
+		assertEquals(10, lines.size());
+		assertTrue(lines.get(9).contains("step 9"));
+	}
+
+	@Test
+	public void testLevel() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		EventLog log = EventLog.create(16, LogLevel.INFO, new PrintStream(
+				bytes, false, "UTF-8"));
+		assertFalse(log.isEnabled(LogLevel.DEBUG));
+		assertTrue(log.isEnabled(LogLevel.WARNING));
+		assertFalse(log.record(EventKind.BEGIN_CONTACT, 0, 1, 2));
+		assertTrue(log.record(EventKind.ROUND_END, 1, 0, -1));
+		log.setLevel(LogLevel.DEBUG);
+		assertTrue(log.record(EventKind.LAUNCH, 2, 3, -1));
+		log.setLevel(LogLevel.WARNING);
+		assertFalse(log.record(EventKind.ROUND_END, 3, 0, -1));
+		log.close();
+		String[] lines = bytes.toString("UTF-8").split("\\R");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].startsWith("[INFO] step 1 ROUND_END"));
+		assertTrue(lines[1].startsWith("[DEBUG] step 2 LAUNCH"));
+		assertEquals(0, log.getDropped());
+	}
+
+	@Test
+	public void testDropped() throws Exception {
+		CountDownLatch printing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		// Blocks the printer on its first event
+		OutputStream blocking = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				printing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+			}
+		};
+		EventLog log = EventLog.create(2, LogLevel.DEBUG, new PrintStream(
+				blocking));
+		assertTrue(log.record(EventKind.LAUNCH, 0, 1, -1));
+		printing.await();
+		assertTrue(log.record(EventKind.LAUNCH, 1, 2, -1));
+		assertTrue(log.record(EventKind.LAUNCH, 2, 3, -1));
+		assertFalse(log.record(EventKind.LAUNCH, 3, 4, -1));
+		assertFalse(log.record(EventKind.LAUNCH, 4, 5, -1));
+		assertEquals(2, log.getDropped());
+		release.countDown();
+		log.close();
+		assertEquals(2, log.getDropped());
+	}
+}
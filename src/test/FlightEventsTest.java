@@ -0,0 +1,83 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import game.HeadlessRunner;
+import game.Levels;
+import game.Round;
+import game.TimelineExport;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Test;
+
+public class FlightEventsTest {
+	/**
+	 * Play a round of 100 steps while recording the events of the game.
+	 */
+	private static Path record() throws Exception {
+		File file = File.createTempFile("game", ".jfr");
+		file.deleteOnExit();
+		try (Recording recording = new Recording()) {
+			recording.enable("game.Step");
+			recording.enable("game.ContactBatch");
+			recording.enable("game.BulletActivation");
+			recording.enable("game.RoundTransition");
+			recording.start();
+			Round round = Levels.createDefault(7);
+			HeadlessRunner.run(round, 100);
+			recording.stop();
+			recording.dump(file.toPath());
+		}
+		return file.toPath();
+	}
+
+	@Test
+	public void testEvents() throws Exception {
+		List<RecordedEvent> events = RecordingFile.readAllEvents(record());
+		int steps = 0;
+		int activations = 0;
+		int transitions = 0;
+		for (RecordedEvent event : events) {
+			switch (event.getEventType().getName()) {
+			case "game.Step":
+				steps++;
+				assertTrue(event.getLong("step") >= 1);
+				break;
+			case "game.BulletActivation":
+				activations++;
+				assertEquals("Cat", event.getString("type"));
+				break;
+			case "game.RoundTransition":
+				transitions++;
+				break;
+			default:
+				break;
+			}
+		}
+		assertEquals(100, steps);
+		assertEquals(1, activations);
+		assertEquals(2, transitions);
+	}
+
+	@Test
+	public void testTimeline() throws Exception {
+		File file = File.createTempFile("timeline", ".json");
+		file.deleteOnExit();
+		int count = TimelineExport.export(record(), file.toPath());
+		String json = new String(Files.readAllBytes(file.toPath()),
+				StandardCharsets.UTF_8);
+		assertTrue(count >= 100);
+		assertTrue(json.startsWith("{\"displayTimeUnit\""));
+		assertTrue(json.contains("\"name\":\"Step\",\"cat\":\"game\",\"ph\":\"X\""));
+		assertTrue(json.contains("\"ph\":\"M\""));
+	}
+}
@@ -0,0 +1,42 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import game.FrameScheduler;
+import game.Metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class FrameSchedulerTest {
+	@Test
+	public void testPace() throws InterruptedException {
+		Metrics metrics = Metrics.create();
+		FrameScheduler scheduler = FrameScheduler.create(100);
+		long start = System.nanoTime();
+		for (int i = 0; i < 5; i++) {
+			scheduler.awaitNextFrame(metrics);
+		}
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS
+				.toNanos(40));
+		assertEquals(5, metrics.getFrameJitter().getCount());
+	}
+
+	@Test
+	public void testDrop() throws InterruptedException {
+		Metrics metrics = Metrics.create();
+		FrameScheduler scheduler = FrameScheduler.create(100);
+		assertEquals(0, scheduler.awaitNextFrame(metrics));
+		Thread.sleep(35);
+		int dropped = scheduler.awaitNextFrame(metrics);
+		assertTrue(dropped >= 2);
+		assertEquals(dropped, metrics.getDroppedFrames());
+		assertTrue(scheduler.getJitter() < scheduler.getFrameNanos());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoFrameRate() {
+		FrameScheduler.create(0);
+	}
+}
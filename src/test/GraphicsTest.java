@@ -0,0 +1,217 @@
+package test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import game.Bullet;
+import game.Cat;
+import game.Graphics;
+import game.HeadlessRunner;
+import game.Levels;
+import game.ParkourCat;
+import game.Round;
+import game.RoundConfig;
+import game.RoundListener;
+import game.WorldSnapshot;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.World;
+import org.junit.Test;
+
+import fr.umlv.zen3.ApplicationContext;
+import fr.umlv.zen3.KeyboardEvent;
+
+public class GraphicsTest {
+	/**
+	 * Bullet drawn with the template of {@link Bullet}, like
+	 * {@link ParkourCat}
+	 */
+	public static final class Marble extends Bullet {
+		private Marble(Body body) {
+			super(body, getFixtureDef());
+		}
+
+		public static Marble create(World world, Vec2 position,
+				Vec2 velocity, float angularVelocity) {
+			return new Marble(world.createBody(getBodyDef(position, velocity,
+					angularVelocity)));
+		}
+
+		@Override
+		public void endContact(Body body) {
+		}
+	}
+
+	/**
+	 * Context rendering into an image, without keyboard
+	 */
+	private static final class ImageContext implements ApplicationContext {
+		private final BufferedImage image = new BufferedImage(Graphics.WIDTH,
+				Graphics.HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+		@Override
+		public KeyboardEvent pollKeyboard() {
+			return null;
+		}
+
+		@Override
+		public KeyboardEvent waitKeyboard() {
+			return null;
+		}
+
+		@Override
+		public KeyboardEvent pollKeys() {
+			return null;
+		}
+
+		@Override
+		public KeyboardEvent waitKeys() {
+			return null;
+		}
+
+		@Override
+		public void render(Consumer<Graphics2D> consumer) {
+			Graphics2D graphics = image.createGraphics();
+			try {
+				consumer.accept(graphics);
+			} finally {
+				graphics.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void testHasChanged() throws Exception {
+		ImageContext context = new ImageContext();
+		Round round = Levels.createDefault(7);
+		assertTrue(Graphics.hasChanged(context, round));
+		context.render(g -> Graphics.update(context, g, round));
+		assertFalse(Graphics.hasChanged(context, round));
+		Graphics.getCamera(context).zoom(2);
+		assertTrue(Graphics.hasChanged(context, round));
+		context.render(g -> Graphics.update(context, g, round));
+		assertFalse(Graphics.hasChanged(context, round));
+		assertTrue(Graphics.hasChanged(context, Levels.createDefault(7)));
+		Graphics.toggleHud(context);
+		assertTrue(Graphics.hasChanged(context, round));
+	}
+
+	@Test
+	public void testSnapshotVersion() throws Exception {
+		Round round = Levels.createDefault(7);
+		int[] last = { round.getSnapshot().getVersion() };
+		boolean[] moved = { false };
+		round.addListener(new RoundListener() {
+			@Override
+			public void onStep(Round round) {
+				WorldSnapshot snapshot = round.getSnapshot();
+				if (snapshot.isMoving()) {
+					moved[0] = true;
+					assertNotEquals(last[0], snapshot.getVersion());
+				}
+				last[0] = snapshot.getVersion();
+			}
+		});
+		HeadlessRunner.run(round, 100);
+		assertTrue(moved[0]);
+	}
+
+	@Test
+	public void testExport() throws Exception {
+		Round round = Levels.createDefault(7);
+		HeadlessRunner.run(round, 60);
+		BufferedImage sequential = Graphics.export(round, 1200, 1000, 1);
+		BufferedImage tiled = Graphics.export(round, 1200, 1000, 3);
+		assertEquals(1200, tiled.getWidth());
+		assertEquals(1000, tiled.getHeight());
+		assertArrayEquals(
+				sequential.getRGB(0, 0, 1200, 1000, null, 0, 1200),
+				tiled.getRGB(0, 0, 1200, 1000, null, 0, 1200));
+	}
+
+	@Test
+	public void testSkin() throws Exception {
+		Round round = Levels.createDefault(7);
+		HeadlessRunner.run(round, 60);
+		BufferedImage skin = new BufferedImage(4, 4,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = skin.createGraphics();
+		graphics.setColor(Color.RED);
+		graphics.fillRect(0, 0, 4, 4);
+		graphics.dispose();
+		assertFalse(countRed(Graphics.export(round, 800, 600, 1)) > 0);
+		Graphics.setSkin(Cat.class, skin);
+		try {
+			assertTrue(countRed(Graphics.export(round, 800, 600, 1)) > 0);
+		} finally {
+			Graphics.setSkin(Cat.class, null);
+		}
+	}
+
+	@Test
+	public void testSkinLaunched() throws Exception {
+		ImageContext context = new ImageContext();
+		Round round = Levels.createDefault(7);
+		BufferedImage skin = new BufferedImage(4, 4,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = skin.createGraphics();
+		graphics.setColor(Color.RED);
+		graphics.fillRect(0, 0, 4, 4);
+		graphics.dispose();
+		Graphics.setSkin(Cat.class, skin);
+		try {
+			// First frame shown before any cat is launched
+			context.render(g -> Graphics.update(context, g, round));
+			HeadlessRunner.run(round, 60);
+			context.render(g -> Graphics.update(context, g, round));
+			assertTrue(countRed(context.image) > 0);
+		} finally {
+			Graphics.setSkin(Cat.class, null);
+		}
+	}
+
+	@Test
+	public void testSkinPerType() throws Exception {
+		Round round = RoundConfig.create(40, 40, new Vec2(20, 20),
+				new Vec2(1, 1), Arrays.asList(ParkourCat.class, Marble.class),
+				Collections.singletonList(new Vec2(35, 35)), 7).createRound();
+		HeadlessRunner.run(round, 60);
+		BufferedImage skin = new BufferedImage(4, 4,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = skin.createGraphics();
+		graphics.setColor(Color.RED);
+		graphics.fillRect(0, 0, 4, 4);
+		graphics.dispose();
+		// Whichever of the two types sharing the template comes first
+		for (Class<? extends Bullet> type : Arrays.asList(ParkourCat.class,
+				Marble.class)) {
+			Graphics.setSkin(type, skin);
+			try {
+				assertTrue(countRed(Graphics.export(round, 1600, 1200, 1)) > 0);
+			} finally {
+				Graphics.setSkin(type, null);
+			}
+		}
+	}
+
+	private static int countRed(BufferedImage image) {
+		int count = 0;
+		for (int pixel : image.getRGB(0, 0, image.getWidth(),
+				image.getHeight(), null, 0, image.getWidth())) {
+			if ((pixel & 0xFFFFFF) == 0xFF0000) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,38 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import game.Goal;
+import game.HeadlessRunner;
+import game.Outcome;
+import game.Round;
+import game.RunReport;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.World;
+import org.junit.Test;
+
+public class HeadlessRunnerTest {
+	@Test
+	public void testRunMaxSteps() {
+		World world = new World(new Vec2(0, 0));
+		Round round = Round.create(world, 5, 5);
+		round.add(Goal.create(world, new Vec2(2, 2)));
+		RunReport report = HeadlessRunner.run(round, 10);
+		assertEquals(Outcome.UNFINISHED, report.getOutcome());
+		assertEquals(10, report.getSteps());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRunMaxStepsNegative() {
+		HeadlessRunner.run(Round.create(new World(new Vec2(0, 0)), 5, 5), -1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testRunTwice() {
+		World world = new World(new Vec2(0, 0));
+		Round round = Round.create(world, 5, 5);
+		round.add(Goal.create(world, new Vec2(2, 2)));
+		HeadlessRunner.run(round, 1);
+		HeadlessRunner.run(round, 1);
+	}
+}
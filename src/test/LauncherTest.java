@@ -1,6 +1,8 @@
 package test;
 
 import static org.junit.Assert.assertEquals;
+import game.Bullet;
+import game.Cat;
 import game.Launcher;
 
 import org.jbox2d.common.Vec2;
@@ -41,4 +43,27 @@ public class LauncherTest {
 		assertEquals(6, world.getBodyCount());
 
 	}
+
+	@Test
+	public void testAddBullets() throws Exception {
+		World world = new World(new Vec2(0, 0));
+		Launcher launcher = Launcher.create(world, new Vec2(5, 7), 3,
+				new Vec2(1, 0));
+		launcher.addBullets(Cat::create, 2);
+		launcher.addBullet(Cat.class);
+		assertEquals(4, world.getBodyCount());
+		assertEquals(3, launcher.launch().size());
+	}
+
+	@Test(expected = NoSuchMethodException.class)
+	public void testAddBulletWithoutCreate() throws Exception {
+		Launcher.create(new World(new Vec2(0, 0)), new Vec2(5, 7), 1)
+				.addBullet(Bullet.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAddBulletsNegative() {
+		Launcher.create(new World(new Vec2(0, 0)), new Vec2(5, 7), 1)
+				.addBullets(Cat::create, -1);
+	}
 }
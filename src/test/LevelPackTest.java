@@ -0,0 +1,127 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import game.Cat;
+import game.LevelPack;
+import game.Levels;
+import game.ParkourCat;
+import game.Round;
+import game.RoundConfig;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class LevelPackTest {
+	private static final String LEVEL = "# Two launchers\n" + "size 8 6\n"
+			+ "wall 3.5 0 1 2\n" + "launcher 1 1 1 1 Cat ParkourCat*2\n"
+			+ "launcher 7 1 -1 1 Cat\n" + "goal 4 5\n" + "goal 2 4\n";
+
+	@Test
+	public void testParse() throws IOException {
+		RoundConfig config = Levels.parse(LEVEL);
+		assertEquals(8, config.getWidth(), 0);
+		assertEquals(6, config.getHeight(), 0);
+		assertEquals(1, config.getWalls().size());
+		assertEquals(2, config.getLaunchers().size());
+		assertEquals(
+				Arrays.asList(Cat.class, ParkourCat.class, ParkourCat.class),
+				config.getLaunchers().get(0).getBullets());
+		assertEquals(2, config.getGoalCount());
+	}
+
+	@Test
+	public void testFormat() throws IOException {
+		RoundConfig config = Levels.parse(LEVEL);
+		String text = Levels.format(config);
+		assertEquals(text, Levels.format(Levels.parse(text)));
+	}
+
+	@Test
+	public void testCreateRound() throws Exception {
+		Round round = Levels.parse(LEVEL).withSeed(3).createRound();
+		assertEquals(2, round.getLaunchers().size());
+		assertEquals(2, round.getGoals().size());
+	}
+
+	@Test(expected = IOException.class)
+	public void testParseUnknownBullet() throws IOException {
+		Levels.parse("size 5 5\nlauncher 1 1 1 0 Dog\n");
+	}
+
+	@Test
+	public void testParseNotBullet() {
+		try {
+			Levels.parse("size 5 5\nlauncher 1 1 1 0 "
+					+ NotBullet.class.getName() + "\n");
+			fail();
+		} catch (IOException e) {
+			assertFalse(notBulletInitialized);
+		}
+	}
+
+	/**
+	 * Class named by a level but which is not a bullet
+	 */
+	static final class NotBullet {
+		static {
+			notBulletInitialized = true;
+		}
+	}
+
+	private static boolean notBulletInitialized;
+
+	@Test(expected = IOException.class)
+	public void testParseNaN() throws IOException {
+		Levels.parse("size 5 NaN\nlauncher 1 1 1 0 Cat\n");
+	}
+
+	@Test(expected = IOException.class)
+	public void testParseInfinity() throws IOException {
+		Levels.parse("size 5 5\nlauncher 1 1 1 0 Cat\ngoal Infinity 1\n");
+	}
+
+	@Test(expected = IOException.class)
+	public void testParseWithoutLauncher() throws IOException {
+		Levels.parse("size 5 5\ngoal 1 1\n");
+	}
+
+	@Test(expected = IOException.class)
+	public void testParseWrongNumber() throws IOException {
+		Levels.parse("size 5 five\nlauncher 1 1 1 0 Cat\n");
+	}
+
+	@Test
+	public void testPack() throws IOException {
+		File file = File.createTempFile("levels", ".pack");
+		file.deleteOnExit();
+		ArrayList<String> levels = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			levels.add("size " + (i + 2) + " 5\nlauncher 1 1 1 0 Cat\n");
+		}
+		LevelPack.write(file.getPath(), levels);
+		LevelPack pack = LevelPack.open(file.getPath());
+		assertEquals(100, pack.size());
+		RoundConfig config = pack.getConfig(42);
+		assertEquals(44, config.getWidth(), 0);
+		assertSame(config, pack.getConfig(42));
+		assertEquals(101, pack.getConfig(99).getWidth(), 0);
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotPack() throws IOException {
+		File file = File.createTempFile("levels", ".pack");
+		file.deleteOnExit();
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write(LEVEL.getBytes("UTF-8"));
+		}
+		LevelPack.open(file.getPath());
+	}
+}
@@ -0,0 +1,84 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import game.HeadlessRunner;
+import game.Histogram;
+import game.Levels;
+import game.Metrics;
+import game.Round;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class MetricsTest {
+	@Test
+	public void testPercentile() {
+		Histogram histogram = Histogram.create();
+		for (long value = 1; value <= 10000; value++) {
+			histogram.record(value * 1000);
+		}
+		assertEquals(10000, histogram.getCount());
+		assertEquals(5e6, histogram.getValueAtPercentile(50), 5e6 * 0.035);
+		assertEquals(9.9e6, histogram.getValueAtPercentile(99), 9.9e6 * 0.035);
+		assertEquals(1e7, histogram.getMax(), 1e7 * 0.035);
+		assertEquals(1000, histogram.getValueAtPercentile(0), 1000 * 0.035);
+	}
+
+	@Test
+	public void testSmallAndLargeValues() {
+		Histogram histogram = Histogram.create();
+		histogram.record(-5);
+		histogram.record(17);
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(17, histogram.getMax());
+		histogram.record(Long.MAX_VALUE);
+		assertTrue(histogram.getMax() > 60_000_000_000L);
+	}
+
+	@Test
+	public void testSince() {
+		Histogram histogram = Histogram.create();
+		histogram.record(1_000_000);
+		Histogram earlier = histogram.snapshot();
+		histogram.record(50);
+		histogram.record(60);
+		Histogram window = histogram.since(earlier);
+		assertEquals(2, window.getCount());
+		assertEquals(60, window.getMax());
+		assertEquals(3, histogram.getCount());
+	}
+
+	@Test
+	public void testRound() throws Exception {
+		Metrics metrics = Metrics.create();
+		Round round = Levels.createDefault(7);
+		round.setMetrics(metrics);
+		HeadlessRunner.run(round, 100);
+		assertEquals(round.getStepCount(), metrics.getSteps());
+		assertEquals(metrics.getSteps(), metrics.getStepTime().getCount());
+		assertTrue(metrics.getStepTimeMax() > 0);
+		metrics.reset();
+		assertEquals(0, metrics.getSteps());
+	}
+
+	@Test
+	public void testMBean() throws Exception {
+		Metrics metrics = Metrics.create();
+		metrics.getFrameTime().record(2_000_000);
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName("game.test:type=Metrics");
+		server.registerMBean(metrics, name);
+		try {
+			assertEquals(0L, server.getAttribute(name, "Steps"));
+			assertEquals(2000, (Double) server.getAttribute(name,
+					"FrameTimeP99"), 2000 * 0.035);
+		} finally {
+			server.unregisterMBean(name);
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import game.Bullet;
+import game.Cat;
+import game.EventKind;
+import game.HeadlessRunner;
+import game.Levels;
+import game.Outcome;
+import game.ParkourCat;
+import game.ReplayReader;
+import game.ReplayRecorder;
+import game.Round;
+import game.RoundConfig;
+import game.RoundListener;
+import game.RunReport;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jbox2d.common.Vec2;
+import org.junit.Test;
+
+public class ReplayTest {
+	private static File record(long seed) throws Exception {
+		File file = File.createTempFile("replay", ".stk");
+		file.deleteOnExit();
+		Round round = Levels.createDefault(seed);
+		ReplayRecorder.record(round, file.getPath());
+		RunReport report = HeadlessRunner.run(round, 100_000);
+		assertTrue(report.getOutcome() != Outcome.UNFINISHED);
+		return file;
+	}
+
+	@Test
+	public void testReplay() throws Exception {
+		ReplayReader reader = ReplayReader.open(record(7).getPath());
+		assertEquals(7, reader.getConfig().getSeed());
+		ReplayReader.Cursor events = reader.events();
+		assertTrue(events.next());
+		assertEquals(EventKind.LAUNCH, events.getKind());
+		assertEquals(0, events.getStep());
+		long last = 0;
+		while (events.next()) {
+			assertTrue(events.getStep() >= last);
+			last = events.getStep();
+		}
+		assertEquals(EventKind.ROUND_END, events.getKind());
+
+		Round round = reader.getConfig().createRound();
+		RunReport report = HeadlessRunner.run(round, 100_000);
+		assertEquals(last, report.getSteps());
+		assertEquals(report.getOutcome().ordinal(), events.getFirst());
+	}
+
+	@Test
+	public void testSeek() throws Exception {
+		ReplayReader reader = ReplayReader.open(record(7).getPath());
+		ReplayReader.Cursor events = reader.events();
+		while (events.next()) {
+			ReplayReader.Cursor seek = reader.seek(events.getStep());
+			assertTrue(seek.next());
+			assertEquals(events.getStep(), seek.getStep());
+		}
+		assertFalse(reader.seek(Long.MAX_VALUE).next());
+	}
+
+	@Test
+	public void testCrash() throws Exception {
+		File file = File.createTempFile("replay", ".stk");
+		file.deleteOnExit();
+		// One cat launched every 15 steps until step 735
+		List<Class<? extends Bullet>> bullets = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			bullets.add(Cat.class);
+		}
+		Round round = RoundConfig.create(40, 40, new Vec2(20, 20),
+				new Vec2(1, 1), bullets,
+				Collections.singletonList(new Vec2(35, 35)), 7).createRound();
+		ReplayRecorder.record(round, file.getPath());
+		round.addListener(new RoundListener() {
+			@Override
+			public void onStep(Round round) {
+				if (round.getStepCount() == 600) {
+					throw new IllegalStateException("Crash");
+				}
+			}
+		});
+		try {
+			HeadlessRunner.run(round, 100_000);
+		} catch (IllegalStateException e) {
+			// The recorder must close the file, index included
+		}
+		try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+			in.seek(in.length() - 4);
+			assertEquals(0x53544b49, in.readInt());
+		}
+		ReplayReader.Cursor events = ReplayReader.open(file.getPath())
+				.events();
+		long last = -1;
+		while (events.next()) {
+			assertEquals(EventKind.LAUNCH, events.getKind());
+			last = events.getStep();
+		}
+		assertTrue(last > 512);
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorruptIndex() throws Exception {
+		File file = record(7);
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+			out.seek(out.length() - 16);
+			out.writeLong(Long.MAX_VALUE);
+		}
+		ReplayReader.open(file.getPath());
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorruptRecord() throws Exception {
+		File file = record(7);
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+			// The first entry of the index points to the first record
+			out.seek(out.length() - 16);
+			out.seek(out.readLong() + 8);
+			// Kind of the launch, after its step on one byte
+			out.seek(out.readLong() + 1);
+			out.writeByte(0x7F);
+		}
+		ReplayReader.Cursor events = ReplayReader.open(file.getPath())
+				.events();
+		while (events.next()) {
+			continue;
+		}
+	}
+
+	@Test
+	public void testHeader() throws Exception {
+		File file = File.createTempFile("replay", ".stk");
+		file.deleteOnExit();
+		List<Class<? extends Bullet>> bullets = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			bullets.add(i == 150 ? ParkourCat.class : Cat.class);
+		}
+		Round round = RoundConfig.create(40, 40, new Vec2(20, 20),
+				new Vec2(1, 1), bullets,
+				Collections.singletonList(new Vec2(35, 35)), 7).createRound();
+		ReplayRecorder.record(round, file.getPath()).close();
+		// One byte per bullet after the table of the two class names
+		assertTrue(file.length() < 500);
+		RoundConfig config = ReplayReader.open(file.getPath()).getConfig();
+		assertEquals(bullets, config.getLaunchers().get(0).getBullets());
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotReplay() throws Exception {
+		File file = File.createTempFile("replay", ".stk");
+		file.deleteOnExit();
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write(new byte[32]);
+		}
+		ReplayReader.open(file.getPath());
+	}
+}
@@ -1,15 +1,56 @@
 package test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import game.AttachedWorlds;
+import game.Bullet;
+import game.BulletFactories;
+import game.Cat;
+import game.Goal;
+import game.HeadlessRunner;
 import game.Launcher;
+import game.Levels;
+import game.Outcome;
 import game.Round;
+import game.RoundListener;
+import game.WorldSnapshot;
 
 import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.World;
 import org.junit.Test;
 
 public class RoundTest {
+	/**
+	 * Bullet whose create method takes a boxed angular velocity
+	 */
+	public static final class BoxedBullet extends Bullet {
+		private BoxedBullet(Body body) {
+			super(body, getFixtureDef());
+		}
+
+		public static BoxedBullet create(World world, Vec2 position,
+				Vec2 velocity, Float angularVelocity) {
+			return new BoxedBullet(world.createBody(getBodyDef(position,
+					velocity, angularVelocity)));
+		}
+
+		@Override
+		public void endContact(Body body) {
+		}
+	}
+
+	@Test
+	public void testBoxedCreate() throws Exception {
+		World world = new World(new Vec2(0, 0));
+		Bullet bullet = BulletFactories.get(BoxedBullet.class).create(world,
+				new Vec2(1, 1), new Vec2(1, 0), 2);
+		assertTrue(bullet instanceof BoxedBullet);
+		assertEquals(1, bullet.getPosition().x, 0);
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void testRoundDimensionWidthNegative() {
 		Round.create(new World(new Vec2(0, 0)), -5, 5);
@@ -74,8 +115,79 @@ public class RoundTest {
 		assertFalse(round.isInArea(new Vec2(25, -3)));
 	}
 
+	@Test
+	public void testSnapshot() {
+		World world = new World(new Vec2(0, 0));
+		Round round = Round.create(world, 15, 15);
+		Launcher launcher = Launcher.create(world, new Vec2(5, 5), 20);
+		round.add(launcher);
+		round.add(Goal.create(world, new Vec2(2, 3)));
+		WorldSnapshot snapshot = round.getSnapshot();
+		assertEquals(2, snapshot.size());
+		assertEquals(launcher, snapshot.getElement(0));
+		assertEquals(2, snapshot.getX(1, 1), 0);
+		assertEquals(3, snapshot.getY(1, 0), 0);
+		assertFalse(round.isVictory());
+	}
+
+	@Test
+	public void testCompletion() throws Exception {
+		World world = new World(new Vec2(0, 0));
+		Round round = Round.create(world, 15, 15);
+		Goal goal = Goal.create(world, new Vec2(2, 3));
+		round.add(goal);
+		Round[] victory = new Round[1];
+		round.addListener(new RoundListener() {
+			@Override
+			public void onVictory(Round r) {
+				victory[0] = r;
+			}
+		});
+		goal.receive(Cat.create(world, new Vec2(2, 3), new Vec2(0, 0), 0f));
+		HeadlessRunner.run(round, 10);
+		assertEquals(Outcome.VICTORY, round.getCompletion().get());
+		assertSame(round, victory[0]);
+		assertTrue(round.isVictory());
+	}
+
+	@Test
+	public void testCompletionUnfinished() throws Exception {
+		World world = new World(new Vec2(0, 0));
+		Round round = Round.create(world, 15, 15);
+		round.add(Goal.create(world, new Vec2(2, 3)));
+		assertFalse(round.getCompletion().isDone());
+		HeadlessRunner.run(round, 10);
+		assertEquals(Outcome.UNFINISHED, round.getCompletion().get());
+	}
+
+	@Test
+	public void testLaunchSchedule() throws Exception {
+		for (long steps = 15; steps <= 16; steps++) {
+			World world = new World(new Vec2(0, 0));
+			Round round = Round.create(world, 15, 15);
+			Launcher launcher = Launcher.create(world, new Vec2(5, 5), 2,
+					new Vec2(0.01f, 0));
+			launcher.addBullets(Cat::create, 2);
+			round.add(launcher);
+			round.add(Goal.create(world, new Vec2(12, 12)));
+			HeadlessRunner.run(round, steps);
+			Bullet[] bullets = round.getBullets().toArray(new Bullet[0]);
+			assertTrue(bullets[0].isActive());
+			assertEquals(steps > 15, bullets[1].isActive());
+		}
+	}
+
 	@Test(expected = NullPointerException.class)
 	public void testIsInBoardNull() {
 		Round.create(new World(new Vec2(0, 0)), 15, 15).isInArea(null);
 	}
+
+	@Test
+	public void testWorldsReleased() throws Exception {
+		int before = AttachedWorlds.settle();
+		for (int seed = 0; seed < 50; seed++) {
+			HeadlessRunner.run(Levels.createDefault(seed), 200);
+		}
+		assertTrue(AttachedWorlds.awaitAtMost(before));
+	}
 }
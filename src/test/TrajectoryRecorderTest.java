@@ -0,0 +1,154 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import game.Bullet;
+import game.Cat;
+import game.HeadlessRunner;
+import game.Levels;
+import game.Round;
+import game.RoundConfig;
+import game.TrajectoryRecorder;
+import game.WorldSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jbox2d.common.Vec2;
+import org.junit.Test;
+
+public class TrajectoryRecorderTest {
+	/**
+	 * Create a round launching three cats, one every 15 steps.
+	 */
+	private static Round createRound() throws Exception {
+		List<Class<? extends Bullet>> bullets = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			bullets.add(Cat.class);
+		}
+		return RoundConfig.create(40, 40, new Vec2(20, 20), new Vec2(1, 1),
+				bullets, Collections.singletonList(new Vec2(35, 35)), 7)
+				.createRound();
+	}
+
+	@Test
+	public void testBullets() throws Exception {
+		Round round = createRound();
+		TrajectoryRecorder recorder = TrajectoryRecorder.record(round);
+		HeadlessRunner.run(round, 100);
+		assertEquals(3, recorder.getBulletCount());
+		Bullet[] bullets = round.getBullets().toArray(new Bullet[0]);
+		int last = recorder.getStepCount() - 1;
+		for (int i = 0; i < bullets.length; i++) {
+			Vec2 position = bullets[i].getPosition();
+			assertEquals(position.x, recorder.getX(last, i), 0.001);
+			assertEquals(position.y, recorder.getY(last, i), 0.001);
+			assertEquals(bullets[i].getStateFlags(), recorder.getFlags(last, i));
+		}
+		// The cats are launched one after the other, so they are apart
+		assertTrue(recorder.getX(last, 0) != recorder.getX(last, 2));
+	}
+
+	@Test
+	public void testGrow() throws Exception {
+		Round round = createRound();
+		TrajectoryRecorder recorder = TrajectoryRecorder.record(round);
+		TrajectoryRecorder small = TrajectoryRecorder.create(4);
+		round.addListener(small);
+		HeadlessRunner.run(round, 100);
+		assertEquals(100, small.getStepCount());
+		for (int step = 0; step < small.getStepCount(); step++) {
+			for (int i = 0; i < small.getBulletCount(); i++) {
+				assertEquals(recorder.getX(step, i), small.getX(step, i), 0);
+				assertEquals(recorder.getY(step, i), small.getY(step, i), 0);
+				assertEquals(recorder.getAngle(step, i),
+						small.getAngle(step, i), 0);
+				assertEquals(recorder.getFlags(step, i),
+						small.getFlags(step, i));
+			}
+		}
+	}
+
+	@Test
+	public void testExportCsv() throws Exception {
+		Round round = createRound();
+		TrajectoryRecorder recorder = TrajectoryRecorder.record(round);
+		HeadlessRunner.run(round, 20);
+		File file = File.createTempFile("trajectory", ".csv");
+		file.deleteOnExit();
+		recorder.exportCsv(file.getPath());
+		List<String> lines = Files.readAllLines(file.toPath(),
+				StandardCharsets.UTF_8);
+		assertEquals("step,bullet,x,y,angle,flags", lines.get(0));
+		assertEquals(1 + 20 * 3, lines.size());
+		// Line of the last bullet on the fifth step
+		String[] fields = lines.get(1 + 4 * 3 + 2).split(",");
+		assertEquals(recorder.getFirstStep() + 4, Long.parseLong(fields[0]));
+		assertEquals(2, Integer.parseInt(fields[1]));
+		assertEquals(recorder.getX(4, 2), Float.parseFloat(fields[2]), 0);
+		assertEquals(recorder.getY(4, 2), Float.parseFloat(fields[3]), 0);
+		assertEquals(recorder.getAngle(4, 2), Float.parseFloat(fields[4]), 0);
+		assertEquals(recorder.getFlags(4, 2), Integer.parseInt(fields[5]));
+	}
+
+	@Test(expected = IOException.class)
+	public void testLoadOverflow() throws Exception {
+		File file = File.createTempFile("trajectory", ".raw");
+		file.deleteOnExit();
+		// 65536 steps of 65536 bullets overflow an int to 0
+		ByteBuffer header = ByteBuffer.allocate(32);
+		header.putInt(0x53544b54).putInt(1).putInt(1 << 16).putInt(1 << 16)
+				.putLong(1).putFloat(40).putFloat(40);
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+			out.write(header.array());
+		}
+		TrajectoryRecorder.load(file.getPath());
+	}
+	@Test
+	public void testRecord() throws Exception {
+		Round round = Levels.createDefault(7);
+		TrajectoryRecorder recorder = TrajectoryRecorder.record(round);
+		HeadlessRunner.run(round, 100);
+		assertEquals(1, recorder.getBulletCount());
+		assertEquals(round.getStepCount(), recorder.getStepCount());
+		assertEquals(1, recorder.getFirstStep());
+		assertTrue((recorder.getFlags(0, 0) & WorldSnapshot.ACTIVE) != 0);
+		int last = recorder.getStepCount() - 1;
+		assertEquals(round.getBullets().iterator().next().getPosition().x,
+				recorder.getX(last, 0), 0.001);
+	}
+
+	@Test
+	public void testExportRaw() throws Exception {
+		Round round = Levels.createDefault(7);
+		TrajectoryRecorder recorder = TrajectoryRecorder.record(round);
+		HeadlessRunner.run(round, 100);
+		File file = File.createTempFile("trajectory", ".raw");
+		file.deleteOnExit();
+		recorder.exportRaw(file.getPath());
+		TrajectoryRecorder loaded = TrajectoryRecorder.load(file.getPath());
+		assertEquals(recorder.getStepCount(), loaded.getStepCount());
+		for (int step = 0; step < loaded.getStepCount(); step++) {
+			assertEquals(recorder.getX(step, 0), loaded.getX(step, 0), 0);
+			assertEquals(recorder.getY(step, 0), loaded.getY(step, 0), 0);
+			assertEquals(recorder.getAngle(step, 0), loaded.getAngle(step, 0),
+					0);
+			assertEquals(recorder.getFlags(step, 0), loaded.getFlags(step, 0));
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testOutOfSteps() throws Exception {
+		Round round = Levels.createDefault(7);
+		TrajectoryRecorder recorder = TrajectoryRecorder.record(round);
+		HeadlessRunner.run(round, 10);
+		recorder.getX(10, 0);
+	}
+}
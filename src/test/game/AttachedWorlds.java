@@ -0,0 +1,64 @@
+package game;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count the worlds attached to a round which are not released yet, for the
+ * tests checking that rounds do not leak their world. Worlds are released
+ * by the garbage collector, so counts are taken after collections.
+ */
+public final class AttachedWorlds {
+	/**
+	 * Longest time to wait for worlds to be released
+	 */
+	private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+	private AttachedWorlds() {
+	}
+
+	/**
+	 * Collect garbage until the number of attached worlds stops decreasing.
+	 *
+	 * @return number of worlds still attached
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the collector
+	 */
+	public static int settle() throws InterruptedException {
+		int count = collect();
+		for (int i = 0; i < 20; i++) {
+			int next = collect();
+			if (next == count) {
+				return count;
+			}
+			count = next;
+		}
+		return count;
+	}
+
+	/**
+	 * Collect garbage until at most expected worlds are attached, or until
+	 * five seconds have passed.
+	 *
+	 * @param expected
+	 *            number of worlds
+	 * @return True if at most expected worlds are attached
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the collector
+	 */
+	public static boolean awaitAtMost(int expected)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TIMEOUT_NANOS;
+		while (collect() > expected) {
+			if (System.nanoTime() - deadline > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int collect() throws InterruptedException {
+		System.gc();
+		Thread.sleep(10);
+		return Round.getAttachedWorlds();
+	}
+}